@@ -0,0 +1,73 @@
+package com.example.ebookreader.config;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Журнал запросов в категорию "access": метод, путь, статус и время обработки.
+ * Включается уровнем INFO для логгера access (по умолчанию OFF) — выключенный,
+ * фильтр сводится к одной проверке уровня. Прореживание — правилом access=N
+ * в SamplingTurboFilter. Строка запроса не пишется: в ней бывают токены.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger("access");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !log.isInfoEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Ответ асинхронного обработчика готов только по завершении async-цикла
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        write(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                write(request, response, start);
+            }
+        }
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response, long start) {
+        log.info("method={} path={} status={} durationMs={}", request.getMethod(), request.getRequestURI(),
+                response.getStatus(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
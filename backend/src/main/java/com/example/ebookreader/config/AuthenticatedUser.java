@@ -0,0 +1,46 @@
+package com.example.ebookreader.config;
+
+import java.util.List;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Principal аутентифицированного запроса, собранный из проверенных claims JWT
+ * без загрузки пользователя из БД.
+ */
+public final class AuthenticatedUser implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String username, List<GrantedAuthority> authorities) {
+        this.userId = userId;
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser from(VerifiedToken token) {
+        List<GrantedAuthority> authorities = token.getAuthorities().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(token.getUserId(), token.getUsername(), authorities);
+    }
+
+    public Long getUserId() { return userId; }
+    // nickname пользователя на момент выдачи токена
+    public String getUsername() { return username; }
+    public List<GrantedAuthority> getAuthorities() { return authorities; }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[" + userId + ", " + username + ", " + authorities + "]";
+    }
+}
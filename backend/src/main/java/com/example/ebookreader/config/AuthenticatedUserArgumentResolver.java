@@ -0,0 +1,37 @@
+package com.example.ebookreader.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.ebookreader.exception.UnauthorizedException;
+
+/**
+ * Подставляет в параметр контроллера типа AuthenticatedUser principal, который
+ * JwtFilter уже положил в SecurityContext: контроллерам не нужно заново разбирать
+ * заголовок Authorization и искать пользователя по nickname.
+ * Параметры с @AuthenticationPrincipal обрабатывает стандартный резолвер Spring Security.
+ */
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == AuthenticatedUser.class
+                && !parameter.hasParameterAnnotation(AuthenticationPrincipal.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new UnauthorizedException("Требуется авторизация");
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.ebookreader.config;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.ebookreader.exception.ServiceUnavailableException;
+
+/**
+ * BCrypt на отдельном ограниченном пуле: всплеск логинов занимает не больше threads ядер,
+ * остальные запросы (чтение глав) продолжают обслуживаться. Сверх queueCapacity ожидающих
+ * хэширований запрос сразу получает 503, а не копится в очереди.
+ *
+ * strength задаётся в конфигурации (app.security.password.strength) и не меняется от запуска
+ * к запуску. upgradeEncoding срабатывает только на хэши дешевле текущей стоимости: после
+ * повышения strength они пересчитываются при следующем входе, а более стойкие не трогаются.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    // Нижняя граница при калибровке — значение BCrypt по умолчанию
+    static final int MIN_CALIBRATED_STRENGTH = 10;
+    static final int MAX_CALIBRATED_STRENGTH = 16;
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final String OVERLOADED = "Сервер перегружен, повторите попытку позже";
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeout.toMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Подбирает strength, при котором одно хэширование на этой машине укладывается в target:
+     * каждая единица стоимости удваивает время, поэтому достаточно одного замера.
+     * Результат зависит от машины и её загрузки, поэтому его нужно один раз закрепить
+     * в конфигурации, а не подбирать при каждом старте.
+     */
+    public static int calibrate(Duration target) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH);
+        probe.encode("calibration"); // прогрев
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int strength = MIN_CALIBRATED_STRENGTH;
+        while (strength < MAX_CALIBRATED_STRENGTH && best * 2 <= target.toNanos()) {
+            best *= 2;
+            strength++;
+        }
+        log.warn("BCrypt strength {}: ~{} мс на хэш (цель {} мс). Закрепите значение в app.security.password.strength",
+                strength, best / 1_000_000, target.toMillis());
+        return strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException(OVERLOADED);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException(OVERLOADED);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(OVERLOADED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ebookreader.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+/**
+ * Кэш разобранных и провалидированных документов GraphQL по SHA-256 текста запроса:
+ * повторный запрос с тем же текстом не проходит parse/validate заново.
+ */
+public class CachingDocumentProvider implements PreparsedDocumentProvider {
+
+    private final Cache<String, PreparsedDocumentEntry> cache;
+
+    public CachingDocumentProvider(long maxSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput,
+            Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        PreparsedDocumentEntry entry = cache.get(key(executionInput), k -> parseAndValidateFunction.apply(executionInput));
+        return CompletableFuture.completedFuture(entry);
+    }
+
+    // Ключ — хэш фактического текста, а не хэш из extensions.persistedQuery: присланному
+    // клиентом хэшу доверять нельзя, иначе под чужим хэшем в кэш попал бы другой документ
+    private static String key(ExecutionInput executionInput) {
+        return PersistedQueryRegistry.sha256Hex(executionInput.getQuery());
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ebookreader.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.ebookreader.controller.BookGraphQLController;
+import com.example.ebookreader.service.BookCatalogPager;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+
+/**
+ * Настройки выполнения GraphQL: кэш разобранных документов и ограничения запросов.
+ * Ограничения — глубина и оценочная сложность.
+ * Сложность учитывает размер списков и «вес» текста главы, поэтому запрос вида
+ * allBooks { chapters { content } } отклоняется до выполнения, а оглавления проходят.
+ */
+@Configuration
+public class GraphQLConfig {
+
+    // Оценка числа глав в книге и стоимость поля content относительно обычного поля
+    private static final int ESTIMATED_CHAPTERS = 30;
+    private static final int CONTENT_COST = 100;
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${app.graphql.max-depth:6}") int maxDepth) {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${app.graphql.max-complexity:10000}") int maxComplexity) {
+        return new MaxQueryComplexityInstrumentation(maxComplexity, complexityCalculator());
+    }
+
+    @Bean
+    public CachingDocumentProvider cachingDocumentProvider(
+            @Value("${app.graphql.document-cache.max-size:1000}") long maxSize) {
+        return new CachingDocumentProvider(maxSize);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer documentCacheCustomizer(CachingDocumentProvider documentProvider) {
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
+    static FieldComplexityCalculator complexityCalculator() {
+        return (env, childComplexity) -> switch (env.getField().getName()) {
+            case "content" -> CONTENT_COST;
+            case "allBooks", "booksConnection" ->
+                    1 + pageSize(env.getArguments().get("first"), BookCatalogPager.DEFAULT_PAGE_SIZE,
+                            BookCatalogPager.MAX_PAGE_SIZE) * childComplexity;
+            case "chaptersConnection" ->
+                    1 + pageSize(env.getArguments().get("first"), BookGraphQLController.DEFAULT_CHAPTER_PAGE_SIZE,
+                            BookGraphQLController.MAX_CHAPTER_PAGE_SIZE) * childComplexity;
+            case "chapters", "chaptersByBookId" -> 1 + ESTIMATED_CHAPTERS * childComplexity;
+            default -> 1 + childComplexity;
+        };
+    }
+
+    // Фактический размер страницы, как его ограничивает резолвер
+    private static int pageSize(Object first, int defaultSize, int maxSize) {
+        return first instanceof Integer n ? Math.max(1, Math.min(n, maxSize)) : defaultSize;
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.ebookreader.config;
 
 import java.security.Key;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.ebookreader.util.ContentHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,15 +34,40 @@ import io.jsonwebtoken.security.Keys;
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     private static final String SECRET_KEY = "FangSparrow33344@1$_SecretKey_ForJWT2025";
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 часов
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    // Парсер неизменяемый и потокобезопасный — создаётся один раз
+    private final JwtParser parser;
+    private final Clock clock;
+    // Уже проверенные токены по SHA-256 токена; сами токены в памяти не хранятся
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtUtil(@Value("${app.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        this(verifiedCacheSize, Clock.systemUTC());
+    }
+
+    JwtUtil(long verifiedCacheSize, Clock clock) {
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry(clock))
+                .build();
+    }
 
     // === Генерация токена ===
-    public String generateToken(Long userId, UserDetails userDetails) {
+    public String generateToken(Long userId, UserDetails userDetails, int tokenVersion) {
         Map<String, Object> claims = new HashMap<>();
         
         claims.put("userId", userId);
+        claims.put("ver", tokenVersion);
         
         String authorities = userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
@@ -35,24 +75,17 @@ public class JwtUtil {
         
         claims.put("authorities", authorities);
         
-        System.out.println("🔹 Generating JWT token");
-        System.out.println("   User ID: " + userId);
-        System.out.println("   Username (nickname): " + userDetails.getUsername());
-        System.out.println("   Authorities: " + authorities);
-        
         // ✅ В subject храним nickname, а userId в claims
         String token = createToken(claims, userDetails.getUsername());
-        System.out.println("   Token created (first 30 chars): " + token.substring(0, Math.min(30, token.length())) + "...");
+        log.debug("Выдан токен: userId={}, nickname={}, authorities={}, ver={}",
+                userId, userDetails.getUsername(), authorities, tokenVersion);
         
         return token;
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        Date now = new Date(System.currentTimeMillis());
-        Date expiration = new Date(System.currentTimeMillis() + EXPIRATION_TIME);
-        
-        System.out.println("   Issued at: " + now);
-        System.out.println("   Expires at: " + expiration);
+        Date now = Date.from(clock.instant());
+        Date expiration = new Date(now.getTime() + EXPIRATION_TIME);
         
         return Jwts.builder()
                 .setClaims(claims)
@@ -63,121 +96,110 @@ public class JwtUtil {
                 .compact();
     }
 
-    // === Извлечение userId из claims ===
-    public Long extractUserId(String token) {
+    // === Проверка и разбор токена ===
+
+    /**
+     * Проверяет подпись и срок действия и возвращает claims. Подпись проверяется один раз
+     * на токен: повторные запросы с тем же токеном обслуживаются из кэша до его exp.
+     *
+     * @throws JwtException если токен подделан, повреждён или истёк
+     */
+    public VerifiedToken verify(String token) {
+        String digest = ContentHash.of(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired(clock.instant())) {
+            return cached;
+        }
+        VerifiedToken verified = parse(token);
+        // Токены без exp не кэшируем: кэш рассчитан на запись, живущую до истечения токена
+        if (verified.getExpiresAt() != null) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
+    // Полная проверка подписи без кэша
+    VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new VerifiedToken(
+                toLong(claims.get("userId")),
+                claims.getSubject(),
+                splitAuthorities(claims.get("authorities", String.class)),
+                claims.get("ver") instanceof Number version ? version.intValue() : 0,
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    // Вариант для фильтров: некорректный токен — просто отсутствие аутентификации
+    public Optional<VerifiedToken> tryVerify(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            Object userIdObj = claims.get("userId");
-            Long userId = null;
-            
-            if (userIdObj instanceof Integer) {
-                userId = ((Integer) userIdObj).longValue();
-            } else if (userIdObj instanceof Long) {
-                userId = (Long) userIdObj;
-            }
-            
-            System.out.println("🔹 Extracted userId from token: " + userId);
-            return userId;
-        } catch (Exception e) {
-            System.err.println("❌ Error extracting userId: " + e.getMessage());
-            throw e;
+            return Optional.of(verify(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Токен отклонён: {}", e.getMessage());
+            return Optional.empty();
         }
     }
 
+    public Long extractUserId(String token) {
+        return verify(token).getUserId();
+    }
+
     // ✅ Извлечение nickname из subject
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return Date.from(verify(token).getExpiresAt());
     }
 
     // Извлечение authorities из токена
     public String extractAuthorities(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            String authorities = claims.get("authorities", String.class);
-            System.out.println("🔹 Extracted authorities from token: " + authorities);
-            return authorities;
-        } catch (Exception e) {
-            System.err.println("❌ Error extracting authorities: " + e.getMessage());
-            return null;
-        }
+        return tryVerify(token).map(t -> String.join(",", t.getAuthorities())).orElse(null);
+    }
+
+    // Валидация по userId
+    public boolean isTokenValid(String token, Long userId) {
+        return tryVerify(token).map(t -> userId != null && userId.equals(t.getUserId())).orElse(false);
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Валидация по UserDetails
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return tryVerify(token).isPresent();
     }
 
-    private Claims extractAllClaims(String token) {
-        try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-        } catch (Exception e) {
-            System.err.println("❌ Error parsing token: " + e.getClass().getName());
-            System.err.println("   Message: " + e.getMessage());
-            throw e;
-        }
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
     }
 
-    // === Проверка токена ===
-    private boolean isTokenExpired(String token) {
-        try {
-            Date expiration = extractExpiration(token);
-            Date now = new Date();
-            boolean expired = expiration.before(now);
-            
-            System.out.println("🔹 Token expiration check:");
-            System.out.println("   Expires at: " + expiration);
-            System.out.println("   Current time: " + now);
-            System.out.println("   Is expired: " + expired);
-            
-            return expired;
-        } catch (Exception e) {
-            System.err.println("❌ Error checking expiration: " + e.getMessage());
-            return true;
+    private static List<String> splitAuthorities(String authorities) {
+        if (authorities == null || authorities.isBlank()) {
+            return List.of();
         }
+        return Arrays.stream(authorities.split(",")).map(String::trim).filter(a -> !a.isEmpty()).toList();
     }
 
-    // Валидация по userId
-    public boolean isTokenValid(String token, Long userId) {
-        try {
-            System.out.println("🔹 Validating token:");
-            
-            final Long tokenUserId = extractUserId(token);
-            
-            System.out.println("   Token userId: " + tokenUserId);
-            System.out.println("   Expected userId: " + userId);
-            
-            boolean userIdMatches = tokenUserId.equals(userId);
-            System.out.println("   UserId matches: " + userIdMatches);
-            
-            boolean expired = isTokenExpired(token);
-            System.out.println("   Token expired: " + expired);
-            
-            boolean valid = userIdMatches && !expired;
-            System.out.println("   Final result: " + (valid ? "✅ VALID" : "❌ INVALID"));
-            
-            return valid;
-        } catch (Exception e) {
-            System.err.println("❌ Token validation error: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+    // Запись кэша живёт ровно до exp токена
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        private final Clock clock;
+
+        private UntilTokenExpiry(Clock clock) {
+            this.clock = clock;
         }
-    }
 
-    // Валидация по UserDetails
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            System.err.println("❌ Token validation error: " + e.getMessage());
-            return false;
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), value.getExpiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
\ No newline at end of file
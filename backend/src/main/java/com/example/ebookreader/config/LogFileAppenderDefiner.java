@@ -0,0 +1,20 @@
+package com.example.ebookreader.config;
+
+import ch.qos.logback.core.PropertyDefinerBase;
+
+/**
+ * Ресурс с файловым выводом для logback-spring.xml: logback-file.xml, если Spring Boot
+ * задал LOG_FILE (logging.file.name или logging.file.path), иначе имя отсутствующего ресурса,
+ * и необязательный include ничего не подключает. Условия if/then в logback требуют Janino.
+ */
+public class LogFileAppenderDefiner extends PropertyDefinerBase {
+
+    @Override
+    public String getPropertyValue() {
+        String logFile = getContext().getProperty("LOG_FILE");
+        if (logFile == null) {
+            logFile = System.getProperty("LOG_FILE");
+        }
+        return logFile == null || logFile.isBlank() ? "logback-file-disabled.xml" : "logback-file.xml";
+    }
+}
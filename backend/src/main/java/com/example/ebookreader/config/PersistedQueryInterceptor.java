@@ -0,0 +1,80 @@
+package com.example.ebookreader.config;
+
+import java.util.Map;
+
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.stereotype.Component;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import reactor.core.publisher.Mono;
+
+/**
+ * Automatic persisted queries (протокол Apollo) для всех транспортов GraphQL —
+ * HTTP POST /graphql и graphql-ws на том же пути.
+ * Клиент передаёт extensions.persistedQuery.sha256Hash; если текста запроса нет,
+ * он подставляется из PersistedQueryRegistry. Неизвестный хэш — ошибка PERSISTED_QUERY_NOT_FOUND,
+ * после которой клиент повторяет запрос с текстом. Текст, присланный вместе с хэшем,
+ * сверяется с ним до регистрации.
+ */
+@Component
+public class PersistedQueryInterceptor implements WebGraphQlInterceptor {
+
+    private final PersistedQueryRegistry registry;
+
+    public PersistedQueryInterceptor(PersistedQueryRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        // Для запроса только с хэшем Spring GraphQL подставляет вместо текста маркер graphql-java
+        String document = request.getDocument();
+        String query = document.isBlank() || PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(document) ? null : document;
+        String hash = persistedQueryHash(request.getExtensions());
+
+        if (hash == null) {
+            if (query == null) {
+                return chain.next(request);
+            }
+            if (registry.isRegisteredOnly() && !registry.isRegistered(PersistedQueryRegistry.sha256Hex(query))) {
+                return error(request, "Разрешены только зарегистрированные запросы", "PERSISTED_QUERY_REQUIRED");
+            }
+        } else if (query == null) {
+            String stored = registry.find(hash).orElse(null);
+            if (stored == null) {
+                return error(request, "PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+            }
+            request.configureExecutionInput((input, builder) -> builder.query(stored).build());
+        } else {
+            if (!PersistedQueryRegistry.sha256Hex(query).equals(hash)) {
+                return error(request, "Хэш не соответствует тексту запроса", "PERSISTED_QUERY_HASH_MISMATCH");
+            }
+            if (!registry.register(hash, query)) {
+                return error(request, "Разрешены только зарегистрированные запросы", "PERSISTED_QUERY_REQUIRED");
+            }
+        }
+        return chain.next(request);
+    }
+
+    private static String persistedQueryHash(Map<String, Object> extensions) {
+        if (extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash) {
+            return hash;
+        }
+        return null;
+    }
+
+    // Ошибки в формате ответа GraphQL, чтобы клиент обрабатывал их как обычные errors
+    private static Mono<WebGraphQlResponse> error(WebGraphQlRequest request, String message, String code) {
+        ExecutionResult result = ExecutionResultImpl.newExecutionResult()
+                .addError(GraphqlErrorBuilder.newError().message(message).extensions(Map.of("code", code)).build())
+                .build();
+        return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(request.toExecutionInput(), result)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ebookreader.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Хранилище persisted-запросов GraphQL по SHA-256 текста (hex, как в протоколе Apollo APQ).
+ * Зарегистрированные запросы загружаются из classpath:graphql-persisted/*.graphql;
+ * в обычном режиме клиенты дополнительно регистрируют запросы сами (ограниченный кэш),
+ * в режиме registered-only принимаются только заранее зарегистрированные.
+ */
+@Component
+public class PersistedQueryRegistry {
+
+    private static final String REGISTERED_LOCATION = "classpath*:graphql-persisted/*.graphql";
+
+    private final boolean registeredOnly;
+    private final Map<String, String> registered = new ConcurrentHashMap<>();
+    private final Cache<String, String> automatic;
+
+    public PersistedQueryRegistry(
+            @Value("${app.graphql.persisted-queries.registered-only:false}") boolean registeredOnly,
+            @Value("${app.graphql.persisted-queries.max-size:10000}") long maxSize) {
+        this.registeredOnly = registeredOnly;
+        this.automatic = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    @PostConstruct
+    public void loadRegistered() {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(REGISTERED_LOCATION)) {
+                // Хэш считается от текста без завершающих пробелов и переводов строки
+                String query = resource.getContentAsString(StandardCharsets.UTF_8).stripTrailing();
+                registered.put(sha256Hex(query), query);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isRegisteredOnly() {
+        return registeredOnly;
+    }
+
+    public boolean isRegistered(String hash) {
+        return registered.containsKey(hash);
+    }
+
+    public Optional<String> find(String hash) {
+        String query = registered.get(hash);
+        if (query == null && !registeredOnly) {
+            query = automatic.getIfPresent(hash);
+        }
+        return Optional.ofNullable(query);
+    }
+
+    /**
+     * Запоминает запрос клиента. Возвращает false, если в режиме registered-only
+     * запрос не зарегистрирован заранее.
+     */
+    public boolean register(String hash, String query) {
+        if (registered.containsKey(hash)) {
+            return true;
+        }
+        if (registeredOnly) {
+            return false;
+        }
+        automatic.put(hash, query);
+        return true;
+    }
+
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
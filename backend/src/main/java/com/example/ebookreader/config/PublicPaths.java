@@ -0,0 +1,67 @@
+package com.example.ebookreader.config;
+
+import java.util.List;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Публичные маршруты, для которых токен не нужен и не разбирается.
+ * Один и тот же набор используется в SecurityConfig (permitAll) и в JwtFilter,
+ * шаблоны компилируются один раз, а результат сопоставления запоминается
+ * в атрибуте запроса — решение принимается один раз на запрос.
+ */
+@Component
+public class PublicPaths implements RequestMatcher {
+
+    static final List<String> PATTERNS = List.of(
+            "/api/auth/**",
+            "/api/books/**",
+            "/api/genres/**",
+            "/api/test/**",
+            "/covers/**",
+            "/assets/**",
+            "/api/admin/covers/**",
+            "/swagger-ui/**",
+            "/swagger-ui.html",
+            "/v3/api-docs/**",
+            "/graphql/**",
+            "/graphiql/**",
+            "/favicon.ico");
+
+    private static final String MATCHED_ATTRIBUTE = PublicPaths.class.getName() + ".MATCHED";
+
+    private final List<PathPattern> patterns = PATTERNS.stream()
+            .map(PathPatternParser.defaultInstance::parse)
+            .toList();
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        // Запоминаем только для исходного запроса: при ERROR/FORWARD-диспетчеризации меняется путь
+        boolean cacheable = request.getDispatcherType() == DispatcherType.REQUEST;
+        if (cacheable && request.getAttribute(MATCHED_ATTRIBUTE) instanceof Boolean matched) {
+            return matched;
+        }
+        boolean matched = isPublic(request.getRequestURI().substring(request.getContextPath().length()));
+        if (cacheable) {
+            request.setAttribute(MATCHED_ATTRIBUTE, matched);
+        }
+        return matched;
+    }
+
+    public boolean isPublic(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ebookreader.config;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.ebookreader.service.RequestRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Ограничение частоты запросов в цепочке Spring Security сразу после JwtFilter:
+ * аутентифицированный клиент считается по id пользователя, анонимный — по IP.
+ * Публичные маршруты (PublicPaths) JwtFilter пропускает, поэтому на них Bearer-токен,
+ * если он передан, проверяется здесь — только когда маршрут под лимитом.
+ * Превышение — 429 с Retry-After. Лимиты маршрутов задаются в SecurityConfig.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final RequestRateLimiter limiter;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RequestRateLimiter limiter, JwtUtil jwtUtil, ObjectMapper objectMapper) {
+        this.limiter = limiter;
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        long waitNanos = limiter.tryAcquire(request.getMethod(), path, () -> clientKey(request));
+        if (waitNanos > 0) {
+            reject(request, response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getUserId();
+        }
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            Long userId = jwtUtil.tryVerify(authHeader.substring(BEARER_PREFIX.length()))
+                    .map(VerifiedToken::getUserId)
+                    .orElse(null);
+            if (userId != null) {
+                return userId;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Слишком много запросов, повторите через " + retryAfterSeconds + " с");
+        body.put("path", request.getRequestURI());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ebookreader.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Прореживание логов по категориям: из событий категории пропускается каждое N-е.
+ * Настраивается в logback-spring.xml элементами {@code <sample>категория=N</sample>};
+ * категория — имя логгера или его префикс (до точки), побеждает самый длинный.
+ * WARN и ERROR не прореживаются никогда.
+ *
+ * Проверки isXxxEnabled() (формат null) не считаются событиями — иначе
+ * {@code if (log.isInfoEnabled()) log.info(...)} сдвигал бы счётчик дважды.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final Sampler ALWAYS = new Sampler(1);
+
+    // Счётчик общий для всех логгеров категории
+    private final Map<String, Sampler> categories = new LinkedHashMap<>();
+    // Категория логгера определяется один раз на имя
+    private final Map<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    public void addSample(String spec) {
+        int separator = spec.lastIndexOf('=');
+        try {
+            int every = Integer.parseInt(spec.substring(separator + 1).trim());
+            if (separator <= 0 || every < 1) {
+                throw new NumberFormatException();
+            }
+            categories.put(spec.substring(0, separator).trim(), new Sampler(every));
+        } catch (NumberFormatException e) {
+            addError("Некорректное правило прореживания '" + spec + "', ожидается категория=N (N >= 1)");
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplers.computeIfAbsent(logger.getName(), this::samplerFor);
+        return sampler.accept() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sampler samplerFor(String loggerName) {
+        String best = null;
+        for (String category : categories.keySet()) {
+            boolean matches = loggerName.equals(category) || loggerName.startsWith(category + ".");
+            if (matches && (best == null || category.length() > best.length())) {
+                best = category;
+            }
+        }
+        return best == null ? ALWAYS : categories.get(best);
+    }
+
+    private static final class Sampler {
+
+        private final int every;
+        private final AtomicLong counter = new AtomicLong();
+
+        Sampler(int every) {
+            this.every = every;
+        }
+
+        boolean accept() {
+            return every == 1 || counter.getAndIncrement() % every == 0;
+        }
+    }
+}
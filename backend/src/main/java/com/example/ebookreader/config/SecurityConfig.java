@@ -1,32 +1,72 @@
 package com.example.ebookreader.config;
 
+import java.time.Duration;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 
+import com.example.ebookreader.service.RequestRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
     
     private final JwtFilter jwtFilter;
+    private final PublicPaths publicPaths;
+    private final ObjectMapper objectMapper;
 
-    public SecurityConfig(JwtFilter jwtFilter) {
+    public SecurityConfig(JwtFilter jwtFilter, PublicPaths publicPaths, ObjectMapper objectMapper) {
         this.jwtFilter = jwtFilter;
+        this.publicPaths = publicPaths;
+        this.objectMapper = objectMapper;
+    }
+
+    // JwtFilter — @Component, и без этого Spring Boot добавил бы его ещё и в обычную
+    // цепочку сервлет-фильтров: токен разбирался бы дважды на каждый запрос
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration(JwtFilter filter) {
+        FilterRegistrationBean<JwtFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // === ЛИМИТЫ ЗАПРОСОВ ===
+    // Ведро на клиента (пользователь или IP): capacity запросов, полностью наполняется за period.
+    // Применяется первое подходящее правило; остальные маршруты не ограничиваются
+    @Bean
+    public RequestRateLimiter requestRateLimiter(@Value("${app.rate-limit.max-keys:100000}") long maxKeys) {
+        return new RequestRateLimiter(List.of(
+                RequestRateLimiter.rule("login", "POST", "/api/auth/login", 10, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("register", "POST", "/api/auth/register", 5, Duration.ofMinutes(10)),
+                RequestRateLimiter.rule("refresh", "POST", "/api/auth/refresh", 20, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("password", "PUT", "/api/user/password", 5, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("search", "GET", "/api/books/search/**", 60, Duration.ofMinutes(1))
+        ), maxKeys);
     }
 
+    // strength 0 — подобрать под target-ms (для подбора значения, которое затем закрепить); threads 0 — половина ядер
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.strength:12}") int strength,
+            @Value("${app.security.password.target-ms:250}") long targetMillis,
+            @Value("${app.security.password.threads:0}") int threads,
+            @Value("${app.security.password.queue-capacity:32}") int queueCapacity,
+            @Value("${app.security.password.timeout-ms:5000}") long timeoutMillis) {
+        int cost = strength > 0 ? strength : BoundedPasswordEncoder.calibrate(Duration.ofMillis(targetMillis));
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(cost, poolSize, queueCapacity, Duration.ofMillis(timeoutMillis));
     }
 
     // ✅ КРИТИЧЕСКИ ВАЖНО: Полностью отключаем проверку безопасности для GraphQL
@@ -37,7 +77,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RequestRateLimiter rateLimiter, JwtUtil jwtUtil,
+                                           @Value("${app.rate-limit.enabled:true}") boolean rateLimitEnabled) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(request -> {
@@ -45,30 +86,16 @@ public class SecurityConfig {
                 config.setAllowedOrigins(List.of("*"));
                 config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                 config.setAllowedHeaders(List.of("*"));
+                config.setExposedHeaders(List.of("X-Next-Cursor", "ETag", "Content-Range"));
                 config.setAllowCredentials(false);
                 return config;
             }))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                // ✅ Публичные эндпоинты
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/books/**").permitAll()
-                .requestMatchers("/api/genres/**").permitAll()
-                .requestMatchers("/api/test/**").permitAll()
-                
-                // ✅ Статические файлы
-                .requestMatchers("/covers/**").permitAll()
-                .requestMatchers("/assets/**").permitAll()
-                .requestMatchers("/api/admin/covers/**").permitAll()
-                
-                // ✅ Swagger UI
-                .requestMatchers("/swagger-ui/**").permitAll()
-                .requestMatchers("/v3/api-docs/**").permitAll()
-                .requestMatchers("/swagger-ui.html").permitAll()
-
-                // ✅ GraphQL (уже игнорируется WebSecurityCustomizer, но оставляем для надежности)
-                .requestMatchers("/graphql/**").permitAll()
-                .requestMatchers("/graphiql/**").permitAll()
+                // ✅ Публичные эндпоинты, статика, Swagger UI и GraphQL — общий с JwtFilter набор PublicPaths
+                .requestMatchers(publicPaths).permitAll()
+                // Открыт всем, но токен разбирается: прогресс — только при его наличии
+                .requestMatchers("/api/reader/**").permitAll()
                 
                 // ✅ Защищенные эндпоинты
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -76,8 +103,14 @@ public class SecurityConfig {
                 
                 .anyRequest().authenticated()
             )
-            // ✅ Оставляем только один фильтр (JwtFilter)
+            // ✅ Единственный фильтр аутентификации
             .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitEnabled) {
+            // После JwtFilter, чтобы считать аутентифицированных по id, а не по IP
+            // (на публичных маршрутах — по id из переданного токена).
+            // Не бин: иначе Spring Boot зарегистрировал бы его ещё и сервлет-фильтром
+            http.addFilterAfter(new RateLimitFilter(rateLimiter, jwtUtil, objectMapper), JwtFilter.class);
+        }
         
         return http.build();
     }
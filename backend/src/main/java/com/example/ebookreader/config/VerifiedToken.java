@@ -0,0 +1,41 @@
+package com.example.ebookreader.config;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims JWT после однократной проверки подписи. Неизменяемый, поэтому
+ * один экземпляр разделяется между запросами через кэш JwtUtil.
+ */
+public final class VerifiedToken {
+
+    private final Long userId;
+    private final String username;
+    private final List<String> authorities;
+    private final int tokenVersion;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public VerifiedToken(Long userId, String username, List<String> authorities, int tokenVersion,
+                         Instant issuedAt, Instant expiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+        this.tokenVersion = tokenVersion;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() { return userId; }
+    // nickname пользователя (subject токена)
+    public String getUsername() { return username; }
+    public List<String> getAuthorities() { return authorities; }
+    // Версия токенов пользователя на момент выдачи (claim "ver"; у старых токенов — 0)
+    public int getTokenVersion() { return tokenVersion; }
+    public Instant getIssuedAt() { return issuedAt; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.ebookreader.controller;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -24,7 +25,9 @@ import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.ebookreader.dto.BookSort;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.CursorPage;
 import com.example.ebookreader.model.Book;
 import com.example.ebookreader.model.Chapter;
 import com.example.ebookreader.model.User;
@@ -51,11 +54,22 @@ public class AdminController {
 
     // === УПРАВЛЕНИЕ КНИГАМИ ===
 
-    @Operation(summary = "Получить список всех книг")
-    @ApiResponse(responseCode = "200", description = "Успешный запрос")
+    @Operation(summary = "Получить страницу списка книг (курсор следующей страницы — в заголовке X-Next-Cursor)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Успешный запрос"),
+            @ApiResponse(responseCode = "400", description = "Некорректная сортировка или курсор")
+    })
     @GetMapping("/books")
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(adminService.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<Book> page = adminService.getAllBooks(BookSort.from(sort), cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(BookController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @Operation(summary = "Получить книгу по ID")
@@ -174,6 +188,28 @@ public class AdminController {
         return ResponseEntity.ok().build();
     }
 
+    @Operation(summary = "Перестроить полнотекстовый индекс глав")
+    @ApiResponse(responseCode = "200", description = "Индекс перестроен")
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Void> rebuildSearchIndex() {
+        adminService.rebuildSearchIndex();
+        return ResponseEntity.ok().build();
+    }
+
+    @Operation(summary = "Статистика кэша содержимого глав (попадания, промахи, вытеснения)")
+    @ApiResponse(responseCode = "200", description = "Успешный запрос")
+    @GetMapping("/cache/chapters")
+    public ResponseEntity<Map<String, Object>> getChapterCacheStats() {
+        return ResponseEntity.ok(adminService.getChapterCacheStats());
+    }
+
+    @Operation(summary = "Статистика ограничения частоты запросов (пропущено и отклонено по маршрутам)")
+    @ApiResponse(responseCode = "200", description = "Успешный запрос")
+    @GetMapping("/rate-limit")
+    public ResponseEntity<Map<String, Object>> getRateLimitStats() {
+        return ResponseEntity.ok(adminService.getRateLimitStats());
+    }
+
     // === УПРАВЛЕНИЕ ПОЛЬЗОВАТЕЛЯМИ ===
 
     @Operation(summary = "Получить список всех пользователей")
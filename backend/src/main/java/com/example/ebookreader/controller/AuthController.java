@@ -19,12 +19,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.ebookreader.config.JwtUtil;
+import com.example.ebookreader.config.VerifiedToken;
 import com.example.ebookreader.dto.LoginRequest;
 import com.example.ebookreader.dto.RegisterRequest;
 import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.exception.ServiceUnavailableException;
 import com.example.ebookreader.exception.UnauthorizedException;
 import com.example.ebookreader.model.User;
 import com.example.ebookreader.repository.UserRepository;
+import com.example.ebookreader.service.TokenVersionRegistry;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -45,6 +48,9 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersions;
+
     @Operation(summary = "Регистрация нового пользователя")
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
@@ -75,7 +81,7 @@ public class AuthController {
                     Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + savedUser.getRole()))
             );
 
-            String token = jwtUtil.generateToken(savedUser.getId(), userDetails);
+            String token = jwtUtil.generateToken(savedUser.getId(), userDetails, savedUser.getTokenVersion());
 
             Map<String, String> response = new HashMap<>();
             response.put("token", token);
@@ -87,6 +93,9 @@ public class AuthController {
             
         } catch (BadRequestException e) {
             return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (ServiceUnavailableException e) {
+            // Пул хэширования переполнен — 503 отдаст GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(500)
                     .body(Map.of("message", "Ошибка регистрации: " + e.getMessage()));
@@ -110,6 +119,12 @@ public class AuthController {
                 throw new UnauthorizedException("Неверное имя пользователя или пароль");
             }
 
+            // Хэш дешевле текущей стоимости BCrypt пересчитываем, пока пароль под рукой
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                user.setPassword(passwordEncoder.encode(password));
+                user = userRepository.save(user);
+            }
+
             // 3. Создаем UserDetails вручную (без повторного запроса к БД)
             UserDetails userDetails = new org.springframework.security.core.userdetails.User(
                     user.getNickname(),
@@ -118,7 +133,7 @@ public class AuthController {
             );
 
             // 4. Генерируем токен
-            String token = jwtUtil.generateToken(user.getId(), userDetails);
+            String token = jwtUtil.generateToken(user.getId(), userDetails, user.getTokenVersion());
 
             Map<String, String> response = new HashMap<>();
             response.put("token", token);
@@ -130,6 +145,8 @@ public class AuthController {
             
         } catch (UnauthorizedException e) {
             return ResponseEntity.status(401).body(Map.of("message", e.getMessage()));
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(500)
                     .body(Map.of("message", "Ошибка входа: " + e.getMessage()));
@@ -141,11 +158,14 @@ public class AuthController {
     public ResponseEntity<?> refreshToken(@RequestHeader("Authorization") String authHeader) {
         try {
             String token = authHeader.replace("Bearer ", "");
-            String identifier = jwtUtil.extractUsername(token);
+            VerifiedToken verified = jwtUtil.verify(token);
+            // Отозванный токен (смена роли, удаление) обменять на новый нельзя
+            if (!tokenVersions.isCurrent(verified)) {
+                throw new UnauthorizedException("Токен отозван");
+            }
             
-            User user = userRepository.findByNickname(identifier)
-                    .orElseGet(() -> userRepository.findByEmail(identifier)
-                    .orElseThrow(() -> new UnauthorizedException("Пользователь не найден")));
+            User user = userRepository.findById(verified.getUserId())
+                    .orElseThrow(() -> new UnauthorizedException("Пользователь не найден"));
             
             UserDetails userDetails = new org.springframework.security.core.userdetails.User(
                     user.getNickname(),
@@ -153,7 +173,7 @@ public class AuthController {
                     Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
             );
 
-            String newToken = jwtUtil.generateToken(user.getId(), userDetails);
+            String newToken = jwtUtil.generateToken(user.getId(), userDetails, user.getTokenVersion());
             
             Map<String, Object> response = new HashMap<>();
             response.put("token", newToken);
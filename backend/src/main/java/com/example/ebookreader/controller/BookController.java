@@ -1,25 +1,51 @@
 package com.example.ebookreader.controller;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.BookSuggestionDTO;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.ChapterLayoutDTO;
+import com.example.ebookreader.dto.ChapterPageDTO;
+import com.example.ebookreader.dto.ChapterSearchHitDTO;
+import com.example.ebookreader.dto.CursorPage;
 import com.example.ebookreader.model.Book;
 import com.example.ebookreader.service.BookService; // Импортируем сервис
+import com.example.ebookreader.service.ChapterTextStream;
+import com.example.ebookreader.service.RenderedChapter;
+import com.example.ebookreader.util.ContentHash;
 
 @RestController
 @RequestMapping("/api/books" )
 @CrossOrigin(origins = "*")
 public class BookController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Изменяемые ресурсы кэшируются с обязательной ревалидацией по ETag (304 без тела),
+    // версионированные URL глав неизменяемы и кэшируются на год
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+    private static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
     private final BookService bookService; // Используем сервис
 
     @Autowired
@@ -27,35 +53,209 @@ public class BookController {
         this.bookService = bookService;
     }
 
+    // Тело ответа — список книг страницы; курсор следующей страницы передаётся в заголовке X-Next-Cursor
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<List<Book>> getAllBooks(
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<Book> page = bookService.getAllBooks(BookSort.from(sort), cursor, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<Book>> searchBooks(
-            @RequestParam(required = false, defaultValue = "") String query) {
-        return ResponseEntity.ok(bookService.searchBooks(query));
+            @RequestParam(required = false, defaultValue = "") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookService.searchBooks(query, page, size));
+    }
+
+    @GetMapping("/search/content")
+    public ResponseEntity<List<ChapterSearchHitDTO>> searchContent(
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(bookService.searchChapterContent(null, q, limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<BookSuggestionDTO>> suggestBooks(
+            @RequestParam(required = false, defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookService.suggestBooks(prefix, limit));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Book> getBookById(@PathVariable Long id) {
         return bookService.getBookById(id)
-                .map(ResponseEntity::ok)
+                .map(book -> ResponseEntity.ok()
+                        .eTag(ContentHash.of(String.valueOf(book.getId()), book.getTitle(), book.getAuthor(),
+                                book.getDescription(), book.getCoverUrl()))
+                        .cacheControl(REVALIDATE)
+                        .body(book))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{bookId}/search")
+    public ResponseEntity<List<ChapterSearchHitDTO>> searchInBook(
+            @PathVariable Long bookId,
+            @RequestParam(required = false, defaultValue = "") String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(bookService.searchChapterContent(bookId, q, limit));
+    }
+
     @GetMapping("/{bookId}/chapters")
     public ResponseEntity<List<ChapterDTO>> getBookChapters(@PathVariable Long bookId) {
-        return ResponseEntity.ok(bookService.getBookChapters(bookId));
+        List<ChapterDTO> chapters = bookService.getBookChapters(bookId);
+        // ETag оглавления меняется при любом изменении состава, порядка или версий глав
+        String[] parts = new String[chapters.size() * 3];
+        int i = 0;
+        for (ChapterDTO chapter : chapters) {
+            parts[i++] = String.valueOf(chapter.getId());
+            parts[i++] = String.valueOf(chapter.getChapterOrder());
+            parts[i++] = chapter.getVersion();
+        }
+        return ResponseEntity.ok()
+                .eTag(ContentHash.of(parts))
+                .cacheControl(REVALIDATE)
+                .body(chapters);
     }
 
+    // Тело главы — заранее подготовленные байты JSON (или gzip), Jackson на чтении не участвует
     @GetMapping("/{bookId}/chapters/{chapterOrder}")
-    public ResponseEntity<ChapterDTO> getChapter(
+    public ResponseEntity<byte[]> getChapter(
+            @PathVariable Long bookId,
+            @PathVariable int chapterOrder,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return bookService.getChapter(bookId, chapterOrder)
+                .map(chapter -> renderedChapter(chapter, acceptEncoding, REVALIDATE))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{bookId}/chapters/{chapterOrder}/layout")
+    public ResponseEntity<ChapterLayoutDTO> getChapterLayout(
             @PathVariable Long bookId,
             @PathVariable int chapterOrder) {
+        return bookService.getChapterLayout(bookId, chapterOrder)
+                .map(layout -> ResponseEntity.ok()
+                        .eTag(layout.getVersion())
+                        .cacheControl(REVALIDATE)
+                        .body(layout))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{bookId}/chapters/{chapterOrder}/pages/{page}")
+    public ResponseEntity<ChapterPageDTO> getChapterPage(
+            @PathVariable Long bookId,
+            @PathVariable int chapterOrder,
+            @PathVariable int page,
+            @RequestParam(required = false) String version) {
+        // version — из разметки (/layout), по которой клиент считал страницы; устаревшая — 409
+        return bookService.getChapterPage(bookId, chapterOrder, page, version)
+                .map(chapterPage -> ResponseEntity.ok()
+                        .eTag(chapterPage.getVersion() + "-p" + page)
+                        .cacheControl(REVALIDATE)
+                        .body(chapterPage))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Текст главы (text/plain, UTF-8) потоком, целиком или диапазоном символов [offset, offset + length).
+     * Длина всего текста возвращается в Content-Range: chars offset-last/total.
+     */
+    @GetMapping("/{bookId}/chapters/{chapterOrder}/text")
+    public ResponseEntity<StreamingResponseBody> getChapterText(
+            @PathVariable Long bookId,
+            @PathVariable int chapterOrder,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer length) {
+        return bookService.getChapterText(bookId, chapterOrder, offset, length)
+                .map(text -> {
+                    StreamingResponseBody body = text::writeTo;
+                    return ResponseEntity.status(text.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                            .contentType(TEXT_UTF8)
+                            .eTag(text.getVersion())
+                            .cacheControl(REVALIDATE)
+                            .header(HttpHeaders.CONTENT_RANGE, contentRange(text))
+                            .body(body);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Неизменяемый адрес конкретной версии главы. Если глава с тех пор изменилась,
+     * клиент перенаправляется на адрес актуальной версии.
+     */
+    @GetMapping("/{bookId}/chapters/{chapterOrder}/v/{version}")
+    public ResponseEntity<byte[]> getChapterVersion(
+            @PathVariable Long bookId,
+            @PathVariable int chapterOrder,
+            @PathVariable String version,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         return bookService.getChapter(bookId, chapterOrder)
-                .map(ResponseEntity::ok)
+                .map(chapter -> {
+                    if (!chapter.getVersion().equals(version)) {
+                        return ResponseEntity.status(HttpStatus.FOUND)
+                                .location(URI.create("/api/books/" + bookId + "/chapters/" + chapterOrder
+                                        + "/v/" + chapter.getVersion()))
+                                .cacheControl(CacheControl.noStore())
+                                .<byte[]>build();
+                    }
+                    return renderedChapter(chapter, acceptEncoding, IMMUTABLE);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private static String contentRange(ChapterTextStream text) {
+        if (text.getLength() == 0) {
+            return "chars */" + text.getTotalLength();
+        }
+        return "chars " + text.getOffset() + "-" + (text.getOffset() + text.getLength() - 1) + "/" + text.getTotalLength();
+    }
+
+    private static ResponseEntity<byte[]> renderedChapter(RenderedChapter chapter, String acceptEncoding,
+                                                          CacheControl cacheControl) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            // У каждого кодирования свой строгий ETag
+            return response.eTag(chapter.getVersion() + "-gz")
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(chapter.getGzip());
+        }
+        return response.eTag(chapter.getVersion()).body(chapter.getJson());
+    }
+
+    // gzip принимается, если указан в Accept-Encoding (явно или через *) без q=0
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                    rejected = true;
+                }
+            }
+            if (coding.equalsIgnoreCase("gzip")) {
+                return !rejected;
+            }
+            if (coding.equals("*")) {
+                wildcard = !rejected;
+            }
+        }
+        return wildcard;
+    }
 }
\ No newline at end of file
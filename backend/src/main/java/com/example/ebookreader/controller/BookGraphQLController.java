@@ -4,40 +4,141 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
+import org.dataloader.DataLoader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ebookreader.dto.BookChangeDTO;
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.ChapterChangeDTO;
+import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.Connection;
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.exception.BadRequestException;
 import com.example.ebookreader.exception.ResourceNotFoundException;
 import com.example.ebookreader.model.Book;
 import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.BookChapterSummary;
 import com.example.ebookreader.repository.BookRepository;
 import com.example.ebookreader.repository.ChapterRepository;
+import com.example.ebookreader.repository.ChapterSummary;
+import com.example.ebookreader.service.BookCatalogPager;
+import com.example.ebookreader.service.CatalogChangeBroadcaster;
+import com.example.ebookreader.util.CursorCodec;
+
+import graphql.execution.DataFetcherResult;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Controller
 public class BookGraphQLController {
 
+    private static final Logger log = LoggerFactory.getLogger(BookGraphQLController.class);
+
+    // DataLoader'ы Book.chapters: оглавление (без content) и главы целиком
+    static final String CHAPTER_TOC_LOADER = "chapterToc";
+    static final String CHAPTER_CONTENT_LOADER = "chapterContent";
+
+    public static final int DEFAULT_CHAPTER_PAGE_SIZE = 50;
+    public static final int MAX_CHAPTER_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
     private final ChapterRepository chapterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookCatalogPager catalogPager;
+    private final CatalogChangeBroadcaster changeBroadcaster;
 
     @Autowired
-    public BookGraphQLController(BookRepository bookRepository, ChapterRepository chapterRepository) {
+    public BookGraphQLController(BookRepository bookRepository, ChapterRepository chapterRepository, ApplicationEventPublisher eventPublisher, BookCatalogPager catalogPager, CatalogChangeBroadcaster changeBroadcaster, BatchLoaderRegistry batchLoaderRegistry) {
         this.bookRepository = bookRepository;
         this.chapterRepository = chapterRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogPager = catalogPager;
+        this.changeBroadcaster = changeBroadcaster;
+
+        // Главы всех книг из ответа загружаются одним IN-запросом, а не по запросу на книгу
+        batchLoaderRegistry.<Long, List<ChapterDTO>>forName(CHAPTER_TOC_LOADER)
+                .registerMappedBatchLoader((bookIds, env) -> Mono.fromSupplier(() -> groupByBook(bookIds,
+                        chapterRepository.findSummariesByBookIdIn(bookIds),
+                        BookChapterSummary::getBookId, BookGraphQLController::toTocEntry)));
+        batchLoaderRegistry.<Long, List<Chapter>>forName(CHAPTER_CONTENT_LOADER)
+                .registerMappedBatchLoader((bookIds, env) -> Mono.fromSupplier(() -> groupByBook(bookIds,
+                        chapterRepository.findByBookIdIn(bookIds),
+                        chapter -> chapter.getBook().getId(), chapter -> chapter)));
     }
 
     // === QUERIES ===
 
+    // Список без обёртки, как в REST: курсор следующей страницы — в extensions.nextCursor ответа
+    // (аналог заголовка X-Next-Cursor), отсутствует на последней странице
+    @QueryMapping
+    public DataFetcherResult<List<Book>> allBooks(@Argument Integer first, @Argument String after, @Argument BookSort orderBy) {
+        CursorPage<Book> page = catalogPager.page(orderBy != null ? orderBy : BookSort.TITLE, after, first);
+        DataFetcherResult.Builder<List<Book>> result = DataFetcherResult.<List<Book>>newResult().data(page.getItems());
+        if (page.hasNext()) {
+            result.extensions(Map.of("nextCursor", page.getNextCursor()));
+        }
+        return result.build();
+    }
+
+    // Relay-пагинация: курсор — тот же непрозрачный keyset-курсор, что и в REST (X-Next-Cursor)
     @QueryMapping
-    public List<Book> allBooks() {
-        return bookRepository.findAll();
+    public Connection<Book> booksConnection(@Argument Integer first, @Argument String after, @Argument BookSort orderBy) {
+        BookSort sort = orderBy != null ? orderBy : BookSort.TITLE;
+        CursorPage<Book> page = catalogPager.page(sort, after, first);
+        List<Connection.Edge<Book>> edges = page.getItems().stream()
+                .map(book -> new Connection.Edge<>(BookCatalogPager.cursorAfter(sort, book), book))
+                .toList();
+        return connection(edges, page.hasNext());
+    }
+
+    @QueryMapping
+    public Connection<?> chaptersConnection(@Argument Long bookId, @Argument Integer first, @Argument String after,
+                                            DataFetchingFieldSelectionSet selection) {
+        int pageSize = first == null ? DEFAULT_CHAPTER_PAGE_SIZE : Math.max(1, Math.min(first, MAX_CHAPTER_PAGE_SIZE));
+        int afterOrder = after == null || after.isBlank() ? Integer.MIN_VALUE : decodeChapterCursor(bookId, after);
+        // Запрашиваем на одну главу больше, чтобы узнать, есть ли следующая страница
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Connection.Edge<Object>> edges;
+        if (selection.contains("edges/node/content")) {
+            edges = chapterRepository.findByBookIdAndChapterOrderGreaterThanOrderByChapterOrderAsc(bookId, afterOrder, fetch)
+                    .stream()
+                    .map(chapter -> new Connection.Edge<Object>(chapterCursor(bookId, chapter.getChapterOrder()), chapter))
+                    .toList();
+        } else {
+            edges = chapterRepository.findSummariesByBookIdAndChapterOrderGreaterThanOrderByChapterOrderAsc(bookId, afterOrder, fetch)
+                    .stream()
+                    .map(summary -> new Connection.Edge<Object>(chapterCursor(bookId, summary.getChapterOrder()), toTocEntry(summary)))
+                    .toList();
+        }
+        boolean hasNext = edges.size() > pageSize;
+        return connection(hasNext ? edges.subList(0, pageSize) : edges, hasNext);
     }
 
     @QueryMapping
@@ -45,14 +146,26 @@ public class BookGraphQLController {
         return bookRepository.findById(id);
     }
 
+    // Текст глав читается из БД, только если поле content есть в запросе
+
     @QueryMapping
-    public List<Chapter> chaptersByBookId(@Argument Long bookId) {
-        return chapterRepository.findByBookIdOrderByChapterOrderAsc(bookId);
+    public List<?> chaptersByBookId(@Argument Long bookId, DataFetchingFieldSelectionSet selection) {
+        if (selection.contains("content")) {
+            return chapterRepository.findByBookIdOrderByChapterOrderAsc(bookId);
+        }
+        return chapterRepository.findSummariesByBookIdOrderByChapterOrderAsc(bookId).stream()
+                .map(BookGraphQLController::toTocEntry)
+                .toList();
     }
 
     @QueryMapping
-    public Optional<Chapter> chapterByBookIdAndOrder(@Argument Long bookId, @Argument int chapterOrder) {
-        return chapterRepository.findByBookIdAndChapterOrder(bookId, chapterOrder);
+    public Optional<?> chapterByBookIdAndOrder(@Argument Long bookId, @Argument int chapterOrder,
+                                               DataFetchingFieldSelectionSet selection) {
+        if (selection.contains("content")) {
+            return chapterRepository.findByBookIdAndChapterOrder(bookId, chapterOrder);
+        }
+        return chapterRepository.findSummaryByBookIdAndChapterOrder(bookId, chapterOrder)
+                .map(BookGraphQLController::toTocEntry);
     }
 
     // === MUTATIONS ===
@@ -65,7 +178,9 @@ public class BookGraphQLController {
         newBook.setAuthor(author);
         newBook.setDescription(description != null ? description : "");
         newBook.setCoverUrl(coverUrl);
-        return bookRepository.save(newBook);
+        Book saved = bookRepository.save(newBook);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
     @MutationMapping
@@ -79,7 +194,9 @@ public class BookGraphQLController {
         if (description != null) existingBook.setDescription(description);
         if (coverUrl != null) existingBook.setCoverUrl(coverUrl);
 
-        return bookRepository.save(existingBook);
+        Book saved = bookRepository.save(existingBook);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, saved));
+        return saved;
     }
 
     @MutationMapping
@@ -95,11 +212,12 @@ public class BookGraphQLController {
                 Path coverPath = Paths.get(book.getCoverUrl());
                 Files.deleteIfExists(coverPath);
             } catch (IOException e) {
-                System.err.println("Could not delete cover file: " + e.getMessage());
+                log.warn("Не удалось удалить файл обложки: {}", e.getMessage());
             }
         }
 
         bookRepository.delete(book);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
         return true;
     }
 
@@ -114,7 +232,9 @@ public class BookGraphQLController {
         chapter.setChapterOrder(chapterOrder);
         chapter.setTitle(title);
         chapter.setContent(content);
-        return chapterRepository.save(chapter);
+        Chapter saved = chapterRepository.save(chapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
     @MutationMapping
@@ -123,11 +243,14 @@ public class BookGraphQLController {
         Chapter existingChapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Глава не найдена с ID: " + id));
 
+        Integer previousOrder = existingChapter.getChapterOrder();
         if (chapterOrder != null) existingChapter.setChapterOrder(chapterOrder);
         if (title != null) existingChapter.setTitle(title);
         if (content != null) existingChapter.setContent(content);
 
-        return chapterRepository.save(existingChapter);
+        Chapter saved = chapterRepository.save(existingChapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.UPDATED, saved, previousOrder));
+        return saved;
     }
 
     @MutationMapping
@@ -136,13 +259,73 @@ public class BookGraphQLController {
         Chapter chapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Глава не найдена с ID: " + id));
         chapterRepository.delete(chapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.DELETED, chapter));
         return true;
     }
 
+    // === SUBSCRIPTIONS ===
+
+    // Уведомления приходят после коммита изменений, в том числе сделанных через REST-админку
+
+    @SubscriptionMapping
+    public Flux<BookChangeDTO> bookChanged() {
+        return changeBroadcaster.bookChanges();
+    }
+
+    @SubscriptionMapping
+    public Flux<ChapterChangeDTO> chapterPublished(@Argument Long bookId) {
+        return changeBroadcaster.chapterChanges(bookId);
+    }
+
     // === SCHEMA MAPPINGS (for nested objects) ===
 
     @SchemaMapping(typeName = "Book", field = "chapters")
-    public List<Chapter> getChapters(Book book) {
-        return chapterRepository.findByBookIdOrderByChapterOrderAsc(book.getId());
+    public CompletableFuture<?> getChapters(Book book, DataFetchingFieldSelectionSet selection,
+                                            DataFetchingEnvironment env) {
+        if (selection.contains("content")) {
+            DataLoader<Long, List<Chapter>> loader = env.getDataLoader(CHAPTER_CONTENT_LOADER);
+            return loader.load(book.getId());
+        }
+        DataLoader<Long, List<ChapterDTO>> loader = env.getDataLoader(CHAPTER_TOC_LOADER);
+        return loader.load(book.getId());
+    }
+
+    private static <T> Connection<T> connection(List<Connection.Edge<T>> edges, boolean hasNext) {
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor();
+        return new Connection<>(edges, new Connection.PageInfo(hasNext, endCursor));
+    }
+
+    private static String chapterCursor(Long bookId, int chapterOrder) {
+        return CursorCodec.encode("CHAPTER", bookId.toString(), Integer.toString(chapterOrder));
+    }
+
+    private static int decodeChapterCursor(Long bookId, String cursor) {
+        String[] parts = CursorCodec.decode(cursor, 3);
+        if (!"CHAPTER".equals(parts[0]) || !bookId.toString().equals(parts[1])) {
+            throw new BadRequestException("Курсор не относится к главам книги " + bookId);
+        }
+        try {
+            return Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    private static ChapterDTO toTocEntry(ChapterSummary summary) {
+        return new ChapterDTO(summary.getId(), summary.getChapterOrder(), summary.getTitle(), null,
+                summary.getContentHash());
+    }
+
+    // Раскладывает результат IN-запроса по книгам; у книги без глав — пустой список
+    private static <T, R> Map<Long, List<R>> groupByBook(Set<Long> bookIds, List<T> rows,
+                                                         Function<T, Long> bookId, Function<T, R> mapper) {
+        Map<Long, List<R>> result = new HashMap<>();
+        for (Long id : bookIds) {
+            result.put(id, new ArrayList<>());
+        }
+        for (T row : rows) {
+            result.get(bookId.apply(row)).add(mapper.apply(row));
+        }
+        return result;
     }
 }
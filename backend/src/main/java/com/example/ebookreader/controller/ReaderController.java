@@ -0,0 +1,67 @@
+package com.example.ebookreader.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ebookreader.config.AuthenticatedUser;
+import com.example.ebookreader.dto.ReaderBundleDTO;
+import com.example.ebookreader.service.BookService;
+import com.example.ebookreader.service.ReaderService;
+import com.example.ebookreader.service.RenderedChapter;
+
+/**
+ * Эндпоинты читалки: открытие книги одним запросом и загрузка нескольких глав сразу.
+ * Доступны без авторизации; с токеном в ответ попадает прогресс пользователя.
+ */
+@RestController
+@RequestMapping("/api/reader")
+@CrossOrigin(origins = "*")
+public class ReaderController {
+
+    private final ReaderService readerService;
+    private final BookService bookService;
+
+    public ReaderController(ReaderService readerService, BookService bookService) {
+        this.readerService = readerService;
+        this.bookService = bookService;
+    }
+
+    @GetMapping("/{bookId}")
+    public ResponseEntity<ReaderBundleDTO> getBundle(
+            @PathVariable Long bookId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(readerService.getBundle(bookId, user != null ? user.getUserId() : null));
+    }
+
+    // Массив глав from..to (включительно) собирается из готовых JSON-представлений
+    @GetMapping("/{bookId}/chapters")
+    public ResponseEntity<byte[]> getChapterRange(
+            @PathVariable Long bookId,
+            @RequestParam int from,
+            @RequestParam int to) {
+        List<RenderedChapter> chapters = bookService.getChapterRange(bookId, from, to);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(
+                chapters.stream().mapToInt(c -> c.getJson().length + 1).sum() + 2);
+        body.write('[');
+        for (int i = 0; i < chapters.size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.writeBytes(chapters.get(i).getJson());
+        }
+        body.write(']');
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body.toByteArray());
+    }
+}
@@ -2,6 +2,8 @@ package com.example.ebookreader.controller;
 
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,9 +17,11 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin(origins = "*")
 public class TestController {
 
+    private static final Logger log = LoggerFactory.getLogger(TestController.class);
+
     @GetMapping("/public")
     public Map<String, Object> testPublic() {
-        System.out.println("✅ TEST: Public endpoint accessed");
+        log.debug("TEST: публичный эндпоинт");
         return Map.of(
             "status", "success",
             "message", "Public endpoint works",
@@ -27,21 +31,14 @@ public class TestController {
 
     @GetMapping("/protected")
     public Map<String, Object> testProtected(@RequestHeader("Authorization") String authHeader) {
-        System.out.println("═══════════════════════════════════════");
-        System.out.println("✅ TEST: Protected endpoint accessed");
-        System.out.println("Authorization header: " + authHeader);
-        
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         
+        // Сам заголовок Authorization в лог не пишем — это действующий токен
         if (auth != null) {
-            System.out.println("✅ Authentication found:");
-            System.out.println("   Principal: " + auth.getPrincipal());
-            System.out.println("   Authorities: " + auth.getAuthorities());
-            System.out.println("   Is authenticated: " + auth.isAuthenticated());
+            log.debug("TEST: защищённый эндпоинт, principal={}, authorities={}", auth.getPrincipal(), auth.getAuthorities());
         } else {
-            System.out.println("❌ NO Authentication in SecurityContext!");
+            log.debug("TEST: защищённый эндпоинт без аутентификации");
         }
-        System.out.println("═══════════════════════════════════════");
         
         return Map.of(
             "status", "success",
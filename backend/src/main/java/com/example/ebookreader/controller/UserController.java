@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +13,12 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ebookreader.config.AuthenticatedUser;
 import com.example.ebookreader.config.JwtUtil;
+import com.example.ebookreader.event.UserChangedEvent;
 import com.example.ebookreader.model.User;
 import com.example.ebookreader.repository.UserRepository;
 
@@ -37,12 +39,12 @@ public class UserController {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping("/profile")
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
-        String identifier = jwtUtil.extractUsername(token.replace("Bearer ", ""));
-        
-        User user = userRepository.findByNickname(identifier)
-                .orElseGet(() -> userRepository.findByEmail(identifier).orElse(null));
+    public ResponseEntity<?> getProfile(AuthenticatedUser principal) {
+        User user = userRepository.findById(principal.getUserId()).orElse(null);
         
         if (user == null) {
             return ResponseEntity.notFound().build();
@@ -58,17 +60,15 @@ public class UserController {
 
     @PutMapping("/nickname")
     public ResponseEntity<?> updateNickname(
-            @RequestHeader("Authorization") String token,
+            AuthenticatedUser principal,
             @RequestBody Map<String, String> request) {
-        String identifier = jwtUtil.extractUsername(token.replace("Bearer ", ""));
         String nickname = request.get("nickname");
         
         if (nickname == null || nickname.trim().isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("message", "Никнейм не может быть пустым"));
         }
 
-        User user = userRepository.findByNickname(identifier)
-                .orElseGet(() -> userRepository.findByEmail(identifier).orElse(null));
+        User user = userRepository.findById(principal.getUserId()).orElse(null);
         
         if (user == null) {
             return ResponseEntity.notFound().build();
@@ -80,11 +80,14 @@ public class UserController {
         }
         
         user.setNickname(nickname);
+        // Старые токены несут прежний nickname в subject — отзываем их
+        user.setTokenVersion(user.getTokenVersion() + 1);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, user.getId(), user.getTokenVersion()));
 
         // ✅ Генерируем новый токен с обновленным nickname
         UserDetails userDetails = userDetailsService.loadUserByUsername(user.getNickname());
-        String newToken = jwtUtil.generateToken(user.getId(), userDetails);
+        String newToken = jwtUtil.generateToken(user.getId(), userDetails, user.getTokenVersion());
 
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Никнейм успешно обновлён");
@@ -96,9 +99,8 @@ public class UserController {
 
     @PutMapping("/password")
     public ResponseEntity<?> changePassword(
-            @RequestHeader("Authorization") String token,
+            AuthenticatedUser principal,
             @RequestBody Map<String, String> request) {
-        String identifier = jwtUtil.extractUsername(token.replace("Bearer ", ""));
         String oldPassword = request.get("oldPassword");
         String newPassword = request.get("newPassword");
         
@@ -108,8 +110,7 @@ public class UserController {
             );
         }
 
-        User user = userRepository.findByNickname(identifier)
-                .orElseGet(() -> userRepository.findByEmail(identifier).orElse(null));
+        User user = userRepository.findById(principal.getUserId()).orElse(null);
         
         if (user == null) {
             return ResponseEntity.notFound().build();
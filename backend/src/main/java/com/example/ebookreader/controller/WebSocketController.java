@@ -1,5 +1,7 @@
 package com.example.ebookreader.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
@@ -14,6 +16,8 @@ import java.util.Map;
 @Controller
 public class WebSocketController {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSocketController.class);
+
     @Autowired
     private SimpMessagingTemplate template;
 
@@ -29,7 +33,7 @@ public class WebSocketController {
     @MessageMapping("/chat.sendMessage")
     @SendTo("/topic/public")
     public Map<String, String> sendMessage(Map<String, String> message) {
-        System.out.println("Received message from client: " + message.get("content"));
+        log.debug("Сообщение от клиента: {}", message.get("content"));
         return Map.of("content", "Hello from server: " + message.get("content"));
     }
 }
\ No newline at end of file
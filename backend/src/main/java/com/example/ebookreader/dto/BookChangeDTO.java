@@ -0,0 +1,22 @@
+package com.example.ebookreader.dto;
+
+import com.example.ebookreader.model.Book;
+
+/**
+ * Уведомление подписки bookChanged. Для DELETED book содержит последнее состояние книги.
+ */
+public class BookChangeDTO {
+    private final String type;
+    private final Long bookId;
+    private final Book book;
+
+    public BookChangeDTO(String type, Long bookId, Book book) {
+        this.type = type;
+        this.bookId = bookId;
+        this.book = book;
+    }
+
+    public String getType() { return type; }
+    public Long getBookId() { return bookId; }
+    public Book getBook() { return book; }
+}
@@ -0,0 +1,27 @@
+package com.example.ebookreader.dto;
+
+import java.util.Locale;
+
+import com.example.ebookreader.exception.BadRequestException;
+
+/**
+ * Стабильные ключи сортировки каталога для keyset-пагинации.
+ * Каждый ключ дополняется id, чтобы порядок был однозначным.
+ */
+public enum BookSort {
+    TITLE,
+    AUTHOR,
+    ID,
+    NEWEST;
+
+    public static BookSort from(String value) {
+        if (value == null || value.isBlank()) {
+            return TITLE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Неизвестная сортировка: " + value);
+        }
+    }
+}
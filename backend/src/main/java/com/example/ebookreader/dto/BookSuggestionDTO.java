@@ -0,0 +1,31 @@
+package com.example.ebookreader.dto;
+
+public class BookSuggestionDTO {
+    private Long id;
+    private String title;
+    private String author;
+    private String coverUrl;
+
+    public BookSuggestionDTO() {
+    }
+
+    public BookSuggestionDTO(Long id, String title, String author, String coverUrl) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.coverUrl = coverUrl;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public String getCoverUrl() { return coverUrl; }
+    public void setCoverUrl(String coverUrl) { this.coverUrl = coverUrl; }
+}
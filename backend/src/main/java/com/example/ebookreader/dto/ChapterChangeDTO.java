@@ -0,0 +1,21 @@
+package com.example.ebookreader.dto;
+
+/**
+ * Уведомление подписки chapterPublished. Глава передаётся без текста:
+ * клиент догружает его по chapterOrder, буферы подписчиков не держат содержимое глав.
+ */
+public class ChapterChangeDTO {
+    private final String type;
+    private final Long bookId;
+    private final ChapterDTO chapter;
+
+    public ChapterChangeDTO(String type, Long bookId, ChapterDTO chapter) {
+        this.type = type;
+        this.bookId = bookId;
+        this.chapter = chapter;
+    }
+
+    public String getType() { return type; }
+    public Long getBookId() { return bookId; }
+    public ChapterDTO getChapter() { return chapter; }
+}
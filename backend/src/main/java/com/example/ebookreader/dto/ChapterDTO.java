@@ -5,6 +5,7 @@ public class ChapterDTO {
     private Integer chapterOrder;
     private String title;
     private String content;
+    private String version;
 
     // Конструктор без параметров
     public ChapterDTO() {
@@ -18,6 +19,11 @@ public class ChapterDTO {
         this.content = content;
     }
 
+    public ChapterDTO(Long id, Integer chapterOrder, String title, String content, String version) {
+        this(id, chapterOrder, title, content);
+        this.version = version;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -51,6 +57,15 @@ public class ChapterDTO {
         this.content = content;
     }
 
+    // Версия содержимого главы (хэш), используется в ETag и версионированных URL
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "ChapterDTO{" +
@@ -0,0 +1,51 @@
+package com.example.ebookreader.dto;
+
+/**
+ * Разметка главы: смещения начала абзацев и страниц в символах.
+ * По ним клиент сопоставляет абзац со страницей и хранит прогресс с точностью до абзаца.
+ */
+public class ChapterLayoutDTO {
+    private Long chapterId;
+    private Integer chapterOrder;
+    private String version;
+    private int length;
+    private int pageChars;
+    private int[] paragraphOffsets;
+    private int[] pageOffsets;
+
+    public ChapterLayoutDTO() {
+    }
+
+    public ChapterLayoutDTO(Long chapterId, Integer chapterOrder, String version, int length, int pageChars,
+                            int[] paragraphOffsets, int[] pageOffsets) {
+        this.chapterId = chapterId;
+        this.chapterOrder = chapterOrder;
+        this.version = version;
+        this.length = length;
+        this.pageChars = pageChars;
+        this.paragraphOffsets = paragraphOffsets;
+        this.pageOffsets = pageOffsets;
+    }
+
+    // Getters and Setters
+    public Long getChapterId() { return chapterId; }
+    public void setChapterId(Long chapterId) { this.chapterId = chapterId; }
+
+    public Integer getChapterOrder() { return chapterOrder; }
+    public void setChapterOrder(Integer chapterOrder) { this.chapterOrder = chapterOrder; }
+
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+
+    public int getLength() { return length; }
+    public void setLength(int length) { this.length = length; }
+
+    public int getPageChars() { return pageChars; }
+    public void setPageChars(int pageChars) { this.pageChars = pageChars; }
+
+    public int[] getParagraphOffsets() { return paragraphOffsets; }
+    public void setParagraphOffsets(int[] paragraphOffsets) { this.paragraphOffsets = paragraphOffsets; }
+
+    public int[] getPageOffsets() { return pageOffsets; }
+    public void setPageOffsets(int[] pageOffsets) { this.pageOffsets = pageOffsets; }
+}
@@ -0,0 +1,52 @@
+package com.example.ebookreader.dto;
+
+public class ChapterPageDTO {
+    private Long chapterId;
+    private Integer chapterOrder;
+    private String version;
+    private int page;
+    private int pageCount;
+    private int offset;
+    private int firstParagraph;
+    private String text;
+
+    public ChapterPageDTO() {
+    }
+
+    public ChapterPageDTO(Long chapterId, Integer chapterOrder, String version, int page, int pageCount,
+                          int offset, int firstParagraph, String text) {
+        this.chapterId = chapterId;
+        this.chapterOrder = chapterOrder;
+        this.version = version;
+        this.page = page;
+        this.pageCount = pageCount;
+        this.offset = offset;
+        this.firstParagraph = firstParagraph;
+        this.text = text;
+    }
+
+    // Getters and Setters
+    public Long getChapterId() { return chapterId; }
+    public void setChapterId(Long chapterId) { this.chapterId = chapterId; }
+
+    public Integer getChapterOrder() { return chapterOrder; }
+    public void setChapterOrder(Integer chapterOrder) { this.chapterOrder = chapterOrder; }
+
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getPageCount() { return pageCount; }
+    public void setPageCount(int pageCount) { this.pageCount = pageCount; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getFirstParagraph() { return firstParagraph; }
+    public void setFirstParagraph(int firstParagraph) { this.firstParagraph = firstParagraph; }
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+}
@@ -0,0 +1,48 @@
+package com.example.ebookreader.dto;
+
+public class ChapterSearchHitDTO {
+    private Long bookId;
+    private String bookTitle;
+    private Long chapterId;
+    private Integer chapterOrder;
+    private String chapterTitle;
+    private String snippet;
+    private float score;
+
+    public ChapterSearchHitDTO() {
+    }
+
+    public ChapterSearchHitDTO(Long bookId, String bookTitle, Long chapterId, Integer chapterOrder,
+                               String chapterTitle, String snippet, float score) {
+        this.bookId = bookId;
+        this.bookTitle = bookTitle;
+        this.chapterId = chapterId;
+        this.chapterOrder = chapterOrder;
+        this.chapterTitle = chapterTitle;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    // Getters and Setters
+    public Long getBookId() { return bookId; }
+    public void setBookId(Long bookId) { this.bookId = bookId; }
+
+    public String getBookTitle() { return bookTitle; }
+    public void setBookTitle(String bookTitle) { this.bookTitle = bookTitle; }
+
+    public Long getChapterId() { return chapterId; }
+    public void setChapterId(Long chapterId) { this.chapterId = chapterId; }
+
+    public Integer getChapterOrder() { return chapterOrder; }
+    public void setChapterOrder(Integer chapterOrder) { this.chapterOrder = chapterOrder; }
+
+    public String getChapterTitle() { return chapterTitle; }
+    public void setChapterTitle(String chapterTitle) { this.chapterTitle = chapterTitle; }
+
+    // Фрагмент текста с подсветкой совпадений тегами <mark>
+    public String getSnippet() { return snippet; }
+    public void setSnippet(String snippet) { this.snippet = snippet; }
+
+    public float getScore() { return score; }
+    public void setScore(float score) { this.score = score; }
+}
@@ -0,0 +1,45 @@
+package com.example.ebookreader.dto;
+
+import java.util.List;
+
+/**
+ * Страница в формате Relay Connection для GraphQL: рёбра с курсорами и PageInfo.
+ */
+public class Connection<T> {
+    private final List<Edge<T>> edges;
+    private final PageInfo pageInfo;
+
+    public Connection(List<Edge<T>> edges, PageInfo pageInfo) {
+        this.edges = edges;
+        this.pageInfo = pageInfo;
+    }
+
+    public List<Edge<T>> getEdges() { return edges; }
+    public PageInfo getPageInfo() { return pageInfo; }
+
+    public static class Edge<T> {
+        private final String cursor;
+        private final T node;
+
+        public Edge(String cursor, T node) {
+            this.cursor = cursor;
+            this.node = node;
+        }
+
+        public String getCursor() { return cursor; }
+        public T getNode() { return node; }
+    }
+
+    public static class PageInfo {
+        private final boolean hasNextPage;
+        private final String endCursor;
+
+        public PageInfo(boolean hasNextPage, String endCursor) {
+            this.hasNextPage = hasNextPage;
+            this.endCursor = endCursor;
+        }
+
+        public boolean isHasNextPage() { return hasNextPage; }
+        public String getEndCursor() { return endCursor; }
+    }
+}
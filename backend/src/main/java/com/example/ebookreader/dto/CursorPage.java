@@ -0,0 +1,21 @@
+package com.example.ebookreader.dto;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации: элементы и непрозрачный курсор следующей страницы
+ * (null, если страница последняя).
+ */
+public class CursorPage<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
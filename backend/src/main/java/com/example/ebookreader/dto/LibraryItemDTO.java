@@ -0,0 +1,50 @@
+package com.example.ebookreader.dto;
+
+import java.time.Instant;
+
+import com.example.ebookreader.repository.LibraryEntry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// id, title, author, coverUrl и currentChapter совпадают с прежним ответом GET /api/user/books/bookmarks
+public class LibraryItemDTO {
+    private final Long id;
+    private final String title;
+    private final String author;
+    private final String coverUrl;
+    private final Integer currentChapter;
+    private final boolean bookmarked;
+    private final long totalChapters;
+    private final String nextChapterTitle;
+    private final Instant lastReadAt;
+
+    public LibraryItemDTO(LibraryEntry entry) {
+        this(entry, entry.getCurrentChapter(), entry.getLastReadAt());
+    }
+
+    // Глава и время чтения из ещё не записанного в БД прогресса
+    public LibraryItemDTO(LibraryEntry entry, Integer currentChapter, Instant lastReadAt) {
+        this.id = entry.getBookId();
+        this.title = entry.getTitle();
+        this.author = entry.getAuthor();
+        this.coverUrl = entry.getCoverUrl();
+        this.currentChapter = currentChapter;
+        this.bookmarked = entry.isBookmarked();
+        this.totalChapters = entry.getTotalChapters() != null ? entry.getTotalChapters() : 0;
+        this.nextChapterTitle = entry.getNextChapterTitle();
+        this.lastReadAt = lastReadAt;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public String getAuthor() { return author; }
+    public String getCoverUrl() { return coverUrl; }
+    public Integer getCurrentChapter() { return currentChapter; }
+
+    @JsonProperty("isBookmarked")
+    public boolean isBookmarked() { return bookmarked; }
+
+    public long getTotalChapters() { return totalChapters; }
+    public String getNextChapterTitle() { return nextChapterTitle; }
+    public Instant getLastReadAt() { return lastReadAt; }
+}
@@ -0,0 +1,42 @@
+package com.example.ebookreader.dto;
+
+import java.util.List;
+
+import com.example.ebookreader.model.Book;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+/**
+ * Всё, что нужно читалке при открытии книги, одним ответом:
+ * книга, оглавление, прогресс пользователя и текущая глава.
+ */
+public class ReaderBundleDTO {
+    private Book book;
+    private List<ChapterDTO> chapters;
+    private ReadingProgressDTO progress;
+    // Готовый JSON главы из кэша представлений — вставляется в ответ без повторной сериализации
+    private String chapter;
+
+    public ReaderBundleDTO() {
+    }
+
+    public ReaderBundleDTO(Book book, List<ChapterDTO> chapters, ReadingProgressDTO progress, String chapter) {
+        this.book = book;
+        this.chapters = chapters;
+        this.progress = progress;
+        this.chapter = chapter;
+    }
+
+    // Getters and Setters
+    public Book getBook() { return book; }
+    public void setBook(Book book) { this.book = book; }
+
+    public List<ChapterDTO> getChapters() { return chapters; }
+    public void setChapters(List<ChapterDTO> chapters) { this.chapters = chapters; }
+
+    public ReadingProgressDTO getProgress() { return progress; }
+    public void setProgress(ReadingProgressDTO progress) { this.progress = progress; }
+
+    @JsonRawValue
+    public String getChapter() { return chapter; }
+    public void setChapter(String chapter) { this.chapter = chapter; }
+}
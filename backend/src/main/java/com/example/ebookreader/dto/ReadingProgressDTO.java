@@ -0,0 +1,25 @@
+package com.example.ebookreader.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Поля совпадают с ответом GET /api/user/books/{bookId}/progress
+public class ReadingProgressDTO {
+    private Integer currentChapter;
+    private boolean bookmarked;
+
+    public ReadingProgressDTO() {
+    }
+
+    public ReadingProgressDTO(Integer currentChapter, boolean bookmarked) {
+        this.currentChapter = currentChapter;
+        this.bookmarked = bookmarked;
+    }
+
+    // Getters and Setters
+    public Integer getCurrentChapter() { return currentChapter; }
+    public void setCurrentChapter(Integer currentChapter) { this.currentChapter = currentChapter; }
+
+    @JsonProperty("isBookmarked")
+    public boolean isBookmarked() { return bookmarked; }
+    public void setBookmarked(boolean bookmarked) { this.bookmarked = bookmarked; }
+}
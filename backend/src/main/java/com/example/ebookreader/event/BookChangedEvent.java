@@ -0,0 +1,25 @@
+package com.example.ebookreader.event;
+
+import com.example.ebookreader.model.Book;
+
+/**
+ * Событие изменения книги в каталоге.
+ * Публикуется из AdminServiceImpl и GraphQL-мутаций внутри транзакции,
+ * слушатели обрабатывают его после коммита.
+ */
+public class BookChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Book book;
+
+    public BookChangedEvent(Type type, Book book) {
+        this.type = type;
+        this.book = book;
+    }
+
+    public Type getType() { return type; }
+    public Book getBook() { return book; }
+    public Long getBookId() { return book.getId(); }
+}
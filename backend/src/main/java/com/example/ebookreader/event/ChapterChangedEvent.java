@@ -0,0 +1,33 @@
+package com.example.ebookreader.event;
+
+import com.example.ebookreader.model.Chapter;
+
+/**
+ * Событие изменения главы.
+ * previousOrder содержит порядковый номер главы до изменения (если он менялся),
+ * чтобы слушатели могли точечно сбросить данные по старому номеру.
+ */
+public class ChapterChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Chapter chapter;
+    private final Integer previousOrder;
+
+    public ChapterChangedEvent(Type type, Chapter chapter) {
+        this(type, chapter, null);
+    }
+
+    public ChapterChangedEvent(Type type, Chapter chapter, Integer previousOrder) {
+        this.type = type;
+        this.chapter = chapter;
+        this.previousOrder = previousOrder;
+    }
+
+    public Type getType() { return type; }
+    public Chapter getChapter() { return chapter; }
+    public Integer getPreviousOrder() { return previousOrder; }
+    public Long getChapterId() { return chapter.getId(); }
+    public Long getBookId() { return chapter.getBook().getId(); }
+}
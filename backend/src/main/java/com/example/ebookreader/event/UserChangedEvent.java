@@ -0,0 +1,24 @@
+package com.example.ebookreader.event;
+
+/**
+ * Событие изменения учётной записи, после которого ранее выданные токены
+ * пользователя недействительны. tokenVersion — новая версия токенов.
+ */
+public class UserChangedEvent {
+
+    public enum Type { UPDATED, DELETED }
+
+    private final Type type;
+    private final Long userId;
+    private final int tokenVersion;
+
+    public UserChangedEvent(Type type, Long userId, int tokenVersion) {
+        this.type = type;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public Type getType() { return type; }
+    public Long getUserId() { return userId; }
+    public int getTokenVersion() { return tokenVersion; }
+}
@@ -1,5 +1,9 @@
 package com.example.ebookreader.model;
 
+import com.example.ebookreader.util.ChapterPaginator;
+import com.example.ebookreader.util.ContentHash;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -7,6 +11,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 @Entity
@@ -26,9 +32,38 @@ public class Chapter {
     @Column
     private String title;
 
-    @Column(length = 50000)
+    // Без ограничения длины: в PostgreSQL это TEXT, который TOAST хранит чанками вне строки таблицы
+    @Column(columnDefinition = "text")
     private String content;
 
+    // Версия содержимого главы (ETag и версионированные URL), пересчитывается при каждой записи
+    @Column(length = 32)
+    private String contentHash;
+
+    // Длина текста в символах (кодовых точках, как length() в PostgreSQL): length(content) в запросе
+    // распаковал бы весь текст из TOAST ради одного числа
+    @JsonIgnore
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    // Смещения абзацев и страниц (в символах) для постраничной выдачи, пересчитываются вместе с версией
+    @JsonIgnore
+    @Column(name = "paragraph_offsets")
+    private int[] paragraphOffsets;
+
+    @JsonIgnore
+    @Column(name = "page_offsets")
+    private int[] pageOffsets;
+
+    @PrePersist
+    @PreUpdate
+    public void computeDerivedFields() {
+        this.contentHash = ContentHash.of(String.valueOf(chapterOrder), title, content);
+        this.contentLength = content != null ? content.codePointCount(0, content.length()) : 0;
+        this.paragraphOffsets = ChapterPaginator.paragraphOffsets(content);
+        this.pageOffsets = ChapterPaginator.pageOffsets(content, paragraphOffsets, ChapterPaginator.PAGE_CHARS);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -44,4 +79,16 @@ public class Chapter {
 
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Integer getContentLength() { return contentLength; }
+    public void setContentLength(Integer contentLength) { this.contentLength = contentLength; }
+
+    public int[] getParagraphOffsets() { return paragraphOffsets; }
+    public void setParagraphOffsets(int[] paragraphOffsets) { this.paragraphOffsets = paragraphOffsets; }
+
+    public int[] getPageOffsets() { return pageOffsets; }
+    public void setPageOffsets(int[] pageOffsets) { this.pageOffsets = pageOffsets; }
 }
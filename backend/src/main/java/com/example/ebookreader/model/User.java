@@ -33,6 +33,12 @@ public class User {
     @Column(nullable = false)
     private String role = "USER";
 
+    // Версия токенов пользователя (claim "ver"): увеличивается при смене роли, ника
+    // или удалении, после чего ранее выданные токены перестают приниматься
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    @JsonIgnore
+    private int tokenVersion = 0;
+
     // 🔹 Добавлено: связь с user_books
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore // ❗ предотвращает рекурсивную сериализацию
@@ -89,6 +95,14 @@ public class User {
         this.role = role;
     }
 
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(int tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     public List<UserBook> getUserBooks() {
         return userBooks;
     }
@@ -1,30 +1,40 @@
 package com.example.ebookreader.model;
 
+import java.time.Instant;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "user_books")
+// Одна запись на пару пользователь–книга: на этом ключе держится upsert в UserBookRepositoryCustom
+// Индекс (user_id, last_read_at, id) — keyset-пагинация библиотеки пользователя по давности чтения
+@Table(name = "user_books",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_books_user_book", columnNames = {"user_id", "book_id"}),
+        indexes = @Index(name = "idx_user_books_user_last_read", columnList = "user_id, last_read_at desc, id desc"))
 public class UserBook {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // LAZY: списки и прогресс читаются проекциями и не должны тянуть пользователя и книгу на каждую строку
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @JsonBackReference // ❗ предотвращает бесконечную рекурсию user → userBooks → user
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
@@ -34,6 +44,10 @@ public class UserBook {
     @Column(nullable = false)
     private boolean bookmarked = false;
 
+    // Последнее чтение (или добавление в закладки): ключ сортировки библиотеки
+    @Column(name = "last_read_at")
+    private Instant lastReadAt = Instant.now();
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -74,4 +88,12 @@ public class UserBook {
     public void setBookmarked(boolean bookmarked) {
         this.bookmarked = bookmarked;
     }
+
+    public Instant getLastReadAt() {
+        return lastReadAt;
+    }
+
+    public void setLastReadAt(Instant lastReadAt) {
+        this.lastReadAt = lastReadAt;
+    }
 }
\ No newline at end of file
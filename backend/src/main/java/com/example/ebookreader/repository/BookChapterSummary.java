@@ -0,0 +1,8 @@
+package com.example.ebookreader.repository;
+
+/**
+ * Проекция оглавления с id книги — для загрузки оглавлений нескольких книг одним запросом.
+ */
+public interface BookChapterSummary extends ChapterSummary {
+    Long getBookId();
+}
@@ -1,9 +1,66 @@
 package com.example.ebookreader.repository;
 
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.ebookreader.model.Book;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> { }
+public interface BookRepository extends JpaRepository<Book, Long> {
+
+    // Страница каталога без подсчёта общего количества (для пустого поискового запроса)
+    List<Book> findAllBy(Pageable pageable);
+
+    // Ранжированный поиск на стороне PostgreSQL: полнотекстовый (russian) + триграммы.
+    // Индексы idx_books_fts / idx_books_*_trgm создаются в data.sql.
+    @Query(value = """
+            SELECT b.* FROM books b
+            WHERE to_tsvector('russian', coalesce(b.title, '') || ' ' || coalesce(b.author, ''))
+                      @@ plainto_tsquery('russian', :query)
+               OR b.title ILIKE :pattern ESCAPE '\\'
+               OR b.author ILIKE :pattern ESCAPE '\\'
+               OR b.title % :query
+               OR b.author % :query
+            ORDER BY ts_rank(to_tsvector('russian', coalesce(b.title, '') || ' ' || coalesce(b.author, '')),
+                             plainto_tsquery('russian', :query)) * 2
+                   + greatest(similarity(b.title, :query), similarity(coalesce(b.author, ''), :query)) DESC,
+                     b.id
+            """, nativeQuery = true)
+    List<Book> searchRanked(@Param("query") String query, @Param("pattern") String pattern, Pageable pageable);
+
+    // === Keyset-пагинация каталога ===
+    // Условие после курсора — сравнение кортежей, а не «a > x or (a = x and id > y)»:
+    // только так PostgreSQL начинает просмотр индекса сразу с курсора, а не с начала
+
+
+    @Query("select b from Book b order by b.id asc")
+    List<Book> findFirstById(Limit limit);
+
+    @Query("select b from Book b where b.id > :id order by b.id asc")
+    List<Book> findAfterId(@Param("id") Long id, Limit limit);
+
+    @Query("select b from Book b order by b.id desc")
+    List<Book> findFirstNewest(Limit limit);
+
+    @Query("select b from Book b where b.id < :id order by b.id desc")
+    List<Book> findAfterNewest(@Param("id") Long id, Limit limit);
+
+    // title уникален: порядок и курсор — по одному столбцу, по уникальному индексу title
+    @Query("select b from Book b order by b.title asc")
+    List<Book> findFirstByTitle(Limit limit);
+
+    @Query("select b from Book b where b.title > :title order by b.title asc")
+    List<Book> findAfterTitle(@Param("title") String title, Limit limit);
+
+    @Query("select b from Book b order by coalesce(b.author, '') asc, b.id asc")
+    List<Book> findFirstByAuthor(Limit limit);
+
+    @Query("select b from Book b where (coalesce(b.author, ''), b.id) > (:author, :id) order by coalesce(b.author, '') asc, b.id asc")
+    List<Book> findAfterAuthor(@Param("author") String author, @Param("id") Long id, Limit limit);
+}
@@ -0,0 +1,13 @@
+package com.example.ebookreader.repository;
+
+/**
+ * Проекция главы для постраничной выдачи: предвычисленная разметка без текста.
+ */
+public interface ChapterLayout {
+    Long getId();
+    Integer getChapterOrder();
+    String getContentHash();
+    Integer getContentLength();
+    int[] getParagraphOffsets();
+    int[] getPageOffsets();
+}
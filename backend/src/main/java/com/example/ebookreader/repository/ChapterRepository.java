@@ -1,9 +1,13 @@
 package com.example.ebookreader.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.ebookreader.model.Chapter;
@@ -11,5 +15,42 @@ import com.example.ebookreader.model.Chapter;
 @Repository
 public interface ChapterRepository extends JpaRepository<Chapter, Long> {
     List<Chapter> findByBookIdOrderByChapterOrderAsc(Long bookId);
+    List<ChapterSummary> findSummariesByBookIdOrderByChapterOrderAsc(Long bookId);
+    List<Chapter> findTop200ByContentHashIsNullOrPageOffsetsIsNullOrContentLengthIsNull();
     Optional<Chapter> findByBookIdAndChapterOrder(Long bookId, int chapterOrder);
+    List<Chapter> findByBookIdAndChapterOrderBetweenOrderByChapterOrderAsc(Long bookId, int from, int to);
+
+    // Главы нескольких книг одним запросом (batch-загрузка Book.chapters в GraphQL);
+    // join fetch не даёт eager-связи book порождать отдельный select на каждую книгу
+    @Query("select c from Chapter c join fetch c.book b where b.id in :bookIds order by b.id, c.chapterOrder")
+    List<Chapter> findByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    // То же для оглавлений: без content
+    @Query("select c.book.id as bookId, c.id as id, c.chapterOrder as chapterOrder, c.title as title, " +
+           "c.contentHash as contentHash from Chapter c where c.book.id in :bookIds order by c.book.id, c.chapterOrder")
+    List<BookChapterSummary> findSummariesByBookIdIn(@Param("bookIds") Collection<Long> bookIds);
+
+    // Keyset-страницы глав книги: (book_id, chapter_order) > курсор, с LIMIT
+    List<ChapterSummary> findSummariesByBookIdAndChapterOrderGreaterThanOrderByChapterOrderAsc(Long bookId, int chapterOrder, Limit limit);
+    List<Chapter> findByBookIdAndChapterOrderGreaterThanOrderByChapterOrderAsc(Long bookId, int chapterOrder, Limit limit);
+
+    Optional<ChapterSummary> findSummaryByBookIdAndChapterOrder(Long bookId, int chapterOrder);
+
+    // Длина берётся из content_length: length(c.content) читал бы из TOAST весь текст главы
+    @Query("select c.id as id, c.contentHash as contentHash, c.contentLength as contentLength " +
+           "from Chapter c where c.book.id = :bookId and c.chapterOrder = :chapterOrder")
+    Optional<ChapterTextInfo> findTextInfo(@Param("bookId") Long bookId, @Param("chapterOrder") int chapterOrder);
+
+    // Без обращения к тексту: конец последней страницы — сохранённая длина главы
+    @Query("select c.id as id, c.chapterOrder as chapterOrder, c.contentHash as contentHash, " +
+           "c.contentLength as contentLength, c.paragraphOffsets as paragraphOffsets, c.pageOffsets as pageOffsets " +
+           "from Chapter c where c.book.id = :bookId and c.chapterOrder = :chapterOrder")
+    Optional<ChapterLayout> findLayout(@Param("bookId") Long bookId, @Param("chapterOrder") int chapterOrder);
+
+    // Фрагмент текста читается на стороне БД; start — с единицы, как в SQL.
+    // Условие по версии не даёт отдать текст редакции, отличной от указанной в ETag ответа
+    @Query("select substring(c.content, :start, :length) from Chapter c " +
+           "where c.id = :id and c.contentHash = :version")
+    Optional<String> findContentSlice(@Param("id") Long id, @Param("version") String version,
+                                      @Param("start") int start, @Param("length") int length);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.example.ebookreader.repository;
+
+/**
+ * Проекция главы для оглавления: без содержимого, только то, что нужно списку глав.
+ */
+public interface ChapterSummary {
+    Long getId();
+    Integer getChapterOrder();
+    String getTitle();
+    String getContentHash();
+}
@@ -0,0 +1,10 @@
+package com.example.ebookreader.repository;
+
+/**
+ * Сведения о тексте главы (версия и длина в символах) без загрузки самого текста.
+ */
+public interface ChapterTextInfo {
+    Long getId();
+    String getContentHash();
+    Integer getContentLength();
+}
@@ -0,0 +1,21 @@
+package com.example.ebookreader.repository;
+
+import java.time.Instant;
+
+/**
+ * Проекция строки библиотеки пользователя: книга, прогресс и сведения об оглавлении
+ * из одного запроса, без загрузки сущностей UserBook и Book.
+ */
+public interface LibraryEntry {
+    Long getEntryId();
+    Long getBookId();
+    String getTitle();
+    String getAuthor();
+    String getCoverUrl();
+    Integer getCurrentChapter();
+    boolean isBookmarked();
+    Instant getLastReadAt();
+    Long getTotalChapters();
+    // Заголовок главы после текущей; null, если текущая глава последняя
+    String getNextChapterTitle();
+}
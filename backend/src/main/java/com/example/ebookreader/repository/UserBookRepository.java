@@ -1,19 +1,66 @@
 package com.example.ebookreader.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ebookreader.model.UserBook;
 
 @Repository
-public interface UserBookRepository extends JpaRepository<UserBook, Long> {
+public interface UserBookRepository extends JpaRepository<UserBook, Long>, UserBookRepositoryCustom {
     Optional<UserBook> findByUserIdAndBookId(Long userId, Long bookId);
-    List<UserBook> findByUserIdAndBookmarkedTrue(Long userId);
+
+    // === Библиотека пользователя: keyset-пагинация по (last_read_at desc, id desc) ===
+    // Книга присоединяется в том же запросе, число глав и заголовок следующей главы —
+    // скалярные подзапросы по индексу (book_id, chapter_order). Условие после курсора —
+    // сравнение кортежей: по нему PostgreSQL начинает просмотр индекса сразу с курсора
+
+    String LIBRARY_SELECT = """
+            select ub.id as entryId, b.id as bookId, b.title as title, b.author as author, b.coverUrl as coverUrl,
+                   ub.currentChapter as currentChapter, ub.bookmarked as bookmarked, ub.lastReadAt as lastReadAt,
+                   (select count(c) from Chapter c where c.book.id = b.id) as totalChapters,
+                   (select c.title from Chapter c where c.book.id = b.id and c.chapterOrder = ub.currentChapter + 1) as nextChapterTitle
+            from UserBook ub join ub.book b
+            where ub.user.id = :userId and (:bookmarkedOnly = false or ub.bookmarked = true)
+            """;
+
+    @Query(LIBRARY_SELECT + " order by ub.lastReadAt desc, ub.id desc")
+    List<LibraryEntry> findLibrary(@Param("userId") Long userId, @Param("bookmarkedOnly") boolean bookmarkedOnly, Limit limit);
+
+    @Query(LIBRARY_SELECT + """
+             and (ub.lastReadAt, ub.id) < (:lastReadAt, :id)
+            order by ub.lastReadAt desc, ub.id desc
+            """)
+    List<LibraryEntry> findLibraryAfter(@Param("userId") Long userId, @Param("bookmarkedOnly") boolean bookmarkedOnly,
+                                        @Param("lastReadAt") Instant lastReadAt, @Param("id") Long id, Limit limit);
+
+    // Строка библиотеки для книги с ещё не записанным прогрессом: записи user_books может не быть,
+    // следующая глава — после отложенной chapter
+    @Query("""
+            select ub.id as entryId, b.id as bookId, b.title as title, b.author as author, b.coverUrl as coverUrl,
+                   ub.currentChapter as currentChapter, coalesce(ub.bookmarked, false) as bookmarked, ub.lastReadAt as lastReadAt,
+                   (select count(c) from Chapter c where c.book.id = b.id) as totalChapters,
+                   (select c.title from Chapter c where c.book.id = b.id and c.chapterOrder = :chapter + 1) as nextChapterTitle
+            from Book b left join UserBook ub on ub.book = b and ub.user.id = :userId
+            where b.id = :bookId
+            """)
+    Optional<LibraryEntry> findPendingLibraryEntry(@Param("userId") Long userId, @Param("bookId") Long bookId,
+                                                   @Param("chapter") int chapter);
+
+    // Снятие закладки одним UPDATE; возвращает число изменённых строк (0 — записи нет).
+    // Вставка и обновление вместе — upsert-методы UserBookRepositoryCustom
+    @Modifying
+    @Transactional
+    @Query("update UserBook ub set ub.bookmarked = :bookmarked where ub.user.id = :userId and ub.book.id = :bookId")
+    int updateBookmarked(@Param("userId") Long userId, @Param("bookId") Long bookId, @Param("bookmarked") boolean bookmarked);
     
     @Modifying
     @Transactional
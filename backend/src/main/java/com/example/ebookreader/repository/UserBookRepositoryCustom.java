@@ -0,0 +1,24 @@
+package com.example.ebookreader.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Запись в user_books одним оператором upsert по уникальному ключу (user_id, book_id):
+ * без чтения перед вставкой, поэтому параллельные запросы не плодят дубликатов.
+ */
+public interface UserBookRepositoryCustom {
+
+    // Прогресс одной записи; флаг закладки существующей строки не трогает
+    void upsertProgress(ProgressUpdate update);
+
+    // Пакетная запись прогресса одним JDBC-батчем
+    void upsertProgress(List<ProgressUpdate> updates);
+
+    // Добавить в закладки; новая строка начинается с первой главы, время чтения существующей не меняется
+    void upsertBookmark(Long userId, Long bookId);
+
+    // readAt — момент, когда клиент прислал прогресс (а не момент записи в БД)
+    record ProgressUpdate(Long userId, Long bookId, int chapter, Instant readAt) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ebookreader.repository;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+/**
+ * В PostgreSQL — INSERT ... ON CONFLICT DO UPDATE: атомарен относительно параллельных
+ * вставок того же ключа. В остальных БД (H2 в тестах) — стандартный MERGE; там
+ * параллельная вставка может упасть на уникальном ключе, и оператор просто повторяется
+ * (при повторе строка уже есть и MERGE её обновит).
+ */
+public class UserBookRepositoryCustomImpl implements UserBookRepositoryCustom {
+
+    private static final String PG_PROGRESS = """
+            INSERT INTO user_books (user_id, book_id, current_chapter, bookmarked, last_read_at) VALUES (?, ?, ?, FALSE, ?)
+            ON CONFLICT (user_id, book_id) DO UPDATE
+            SET current_chapter = EXCLUDED.current_chapter, last_read_at = EXCLUDED.last_read_at
+            """;
+    private static final String PG_BOOKMARK = """
+            INSERT INTO user_books (user_id, book_id, current_chapter, bookmarked, last_read_at)
+            VALUES (?, ?, 1, TRUE, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id, book_id) DO UPDATE SET bookmarked = TRUE
+            """;
+    private static final String MERGE_PROGRESS = """
+            MERGE INTO user_books ub
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INTEGER), CAST(? AS TIMESTAMP WITH TIME ZONE)))
+                AS p (user_id, book_id, current_chapter, last_read_at)
+            ON ub.user_id = p.user_id AND ub.book_id = p.book_id
+            WHEN MATCHED THEN UPDATE SET current_chapter = p.current_chapter, last_read_at = p.last_read_at
+            WHEN NOT MATCHED THEN INSERT (user_id, book_id, current_chapter, bookmarked, last_read_at)
+                VALUES (p.user_id, p.book_id, p.current_chapter, FALSE, p.last_read_at)
+            """;
+    private static final String MERGE_BOOKMARK = """
+            MERGE INTO user_books ub
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) AS p (user_id, book_id)
+            ON ub.user_id = p.user_id AND ub.book_id = p.book_id
+            WHEN MATCHED THEN UPDATE SET bookmarked = TRUE
+            WHEN NOT MATCHED THEN INSERT (user_id, book_id, current_chapter, bookmarked, last_read_at)
+                VALUES (p.user_id, p.book_id, 1, TRUE, CURRENT_TIMESTAMP)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String progressSql;
+    private final String bookmarkSql;
+
+    public UserBookRepositoryCustomImpl(JdbcTemplate jdbcTemplate, DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        boolean postgres = "PostgreSQL".equals(
+                JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        this.progressSql = postgres ? PG_PROGRESS : MERGE_PROGRESS;
+        this.bookmarkSql = postgres ? PG_BOOKMARK : MERGE_BOOKMARK;
+    }
+
+    @Override
+    @Retryable(retryFor = DuplicateKeyException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+    public void upsertProgress(ProgressUpdate update) {
+        jdbcTemplate.update(progressSql, update.userId(), update.bookId(), update.chapter(), Timestamp.from(update.readAt()));
+    }
+
+    @Override
+    @Retryable(retryFor = DuplicateKeyException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+    public void upsertProgress(List<ProgressUpdate> updates) {
+        jdbcTemplate.batchUpdate(progressSql, updates, updates.size(), (ps, update) -> {
+            ps.setLong(1, update.userId());
+            ps.setLong(2, update.bookId());
+            ps.setInt(3, update.chapter());
+            ps.setTimestamp(4, Timestamp.from(update.readAt()));
+        });
+    }
+
+    @Override
+    @Retryable(retryFor = DuplicateKeyException.class, maxAttempts = 3, backoff = @Backoff(delay = 10))
+    public void upsertBookmark(Long userId, Long bookId) {
+        jdbcTemplate.update(bookmarkSql, userId, bookId);
+    }
+}
@@ -3,6 +3,8 @@ package com.example.ebookreader.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.ebookreader.model.User;
@@ -18,4 +20,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     // Поиск по ID (наследуется от JpaRepository, но можно указать явно)
     Optional<User> findById(Long id);
+
+    // Только версия токенов — для проверки аутентификации без загрузки пользователя
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -2,18 +2,21 @@ package com.example.ebookreader.service;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.ebookreader.dto.BookSort;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.CursorPage;
 import com.example.ebookreader.model.Book;
 import com.example.ebookreader.model.Chapter;
 import com.example.ebookreader.model.User;
 
 public interface AdminService {
-    List<Book> getAllBooks();
+    CursorPage<Book> getAllBooks(BookSort sort, String cursor, Integer limit);
     Optional<Book> getBookById(Long id);
     Book createBook(String title, String author, String description, MultipartFile cover) throws IOException;
     Book updateBook(Long id, Book bookDetails);
@@ -24,6 +27,9 @@ public interface AdminService {
     Chapter createChapter(Long bookId, ChapterDTO dto);
     Chapter updateChapter(Long bookId, Long chapterId, ChapterDTO dto);
     void deleteChapter(Long bookId, Long chapterId);
+    void rebuildSearchIndex();
+    Map<String, Object> getChapterCacheStats();
+    Map<String, Object> getRateLimitStats();
 
     List<User> getAllUsers();
     Optional<User> getUserById(Long id);
@@ -0,0 +1,82 @@
+package com.example.ebookreader.service;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.util.CursorCodec;
+
+/**
+ * Keyset-пагинация каталога, общая для REST, админки и GraphQL.
+ * Курсор содержит сортировку, значение ключа и id последней книги страницы,
+ * поэтому каждая страница — индексный запрос с LIMIT, без OFFSET.
+ */
+@Component
+public class BookCatalogPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final BookRepository bookRepository;
+
+    public BookCatalogPager(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    public CursorPage<Book> page(BookSort sort, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        Limit fetch = Limit.of(pageSize + 1);
+
+        List<Book> books;
+        if (cursor == null || cursor.isBlank()) {
+            books = switch (sort) {
+                case TITLE -> bookRepository.findFirstByTitle(fetch);
+                case AUTHOR -> bookRepository.findFirstByAuthor(fetch);
+                case ID -> bookRepository.findFirstById(fetch);
+                case NEWEST -> bookRepository.findFirstNewest(fetch);
+            };
+        } else {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            if (!sort.name().equals(parts[0])) {
+                throw new BadRequestException("Курсор не соответствует сортировке " + sort);
+            }
+            Long afterId = parseId(parts[2]);
+            books = switch (sort) {
+                case TITLE -> bookRepository.findAfterTitle(parts[1], fetch);
+                case AUTHOR -> bookRepository.findAfterAuthor(parts[1], afterId, fetch);
+                case ID -> bookRepository.findAfterId(afterId, fetch);
+                case NEWEST -> bookRepository.findAfterNewest(afterId, fetch);
+            };
+        }
+
+        if (books.size() <= pageSize) {
+            return new CursorPage<>(books, null);
+        }
+        List<Book> items = books.subList(0, pageSize);
+        return new CursorPage<>(items, cursorAfter(sort, items.get(pageSize - 1)));
+    }
+
+    public static String cursorAfter(BookSort sort, Book last) {
+        String key = switch (sort) {
+            case TITLE -> last.getTitle();
+            case AUTHOR -> last.getAuthor() != null ? last.getAuthor() : "";
+            case ID, NEWEST -> "";
+        };
+        return CursorCodec.encode(sort.name(), key, last.getId().toString());
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+}
@@ -3,13 +3,29 @@ package com.example.ebookreader.service;
 import java.util.List;
 import java.util.Optional;
 
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.BookSuggestionDTO;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.ChapterLayoutDTO;
+import com.example.ebookreader.dto.ChapterPageDTO;
+import com.example.ebookreader.dto.ChapterSearchHitDTO;
+import com.example.ebookreader.dto.CursorPage;
 import com.example.ebookreader.model.Book;
 
 public interface BookService {
-    List<Book> getAllBooks();
-    List<Book> searchBooks(String query);
+    CursorPage<Book> getAllBooks(BookSort sort, String cursor, Integer limit);
+    List<Book> searchBooks(String query, int page, int size);
+    List<BookSuggestionDTO> suggestBooks(String prefix, int limit);
     Optional<Book> getBookById(Long id);
     List<ChapterDTO> getBookChapters(Long bookId);
-    Optional<ChapterDTO> getChapter(Long bookId, int chapterOrder);
+    Optional<RenderedChapter> getChapter(Long bookId, int chapterOrder);
+    List<RenderedChapter> getChapterRange(Long bookId, int from, int to);
+    Optional<ChapterLayoutDTO> getChapterLayout(Long bookId, int chapterOrder);
+    /**
+     * @param version версия разметки, по которой клиент считал страницы, или null;
+     *                при расхождении с текущей — ConflictException (409)
+     */
+    Optional<ChapterPageDTO> getChapterPage(Long bookId, int chapterOrder, int page, String version);
+    Optional<ChapterTextStream> getChapterText(Long bookId, int chapterOrder, int offset, Integer length);
+    List<ChapterSearchHitDTO> searchChapterContent(Long bookId, String query, int limit);
 }
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.example.ebookreader.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.dto.BookSuggestionDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.util.TextNormalizer;
+
+/**
+ * Префиксный индекс названий и авторов для подсказок при вводе.
+ * Строится при старте из BookRepository и обновляется после коммита изменений книг,
+ * поэтому запросы подсказок не обращаются к БД.
+ */
+@Component
+public class BookSuggestionIndex {
+
+    // Ограничение на число просматриваемых кандидатов для очень коротких префиксов
+    private static final int MAX_CANDIDATES = 500;
+
+    private final BookRepository bookRepository;
+
+    // Отсортированная карта токен → id книг: поиск по префиксу через subMap
+    private final ConcurrentSkipListMap<String, Set<Long>> tokens = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public BookSuggestionIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    // Под тем же монитором, что index/remove: событие книги, пришедшее во время перестройки,
+    // применяется после неё и не теряется при очистке карт
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        tokens.clear();
+        entries.clear();
+        bookRepository.findAll().forEach(this::index);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            remove(event.getBookId());
+        } else {
+            index(event.getBook());
+        }
+    }
+
+    public synchronized void index(Book book) {
+        remove(book.getId());
+
+        Entry entry = new Entry(
+                new BookSuggestionDTO(book.getId(), book.getTitle(), book.getAuthor(), book.getCoverUrl()),
+                TextNormalizer.normalize(book.getTitle()),
+                TextNormalizer.tokenize(book.getTitle() + " " + (book.getAuthor() != null ? book.getAuthor() : "")));
+        entries.put(book.getId(), entry);
+        for (String token : entry.tokens) {
+            tokens.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(book.getId());
+        }
+    }
+
+    public synchronized void remove(Long bookId) {
+        Entry previous = entries.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.tokens) {
+            tokens.computeIfPresent(token, (t, ids) -> {
+                ids.remove(bookId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public List<BookSuggestionDTO> suggest(String prefix, int limit) {
+        List<String> queryTokens = TextNormalizer.tokenize(prefix);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Последний токен — незаконченное слово, по нему выбираем кандидатов
+        String last = queryTokens.get(queryTokens.size() - 1);
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (Set<Long> ids : tokens.subMap(last, true, last + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(ids);
+            if (candidates.size() >= MAX_CANDIDATES) break;
+        }
+
+        // Остальные токены должны совпадать с началом какого-либо слова книги
+        List<String> others = queryTokens.subList(0, queryTokens.size() - 1);
+        String normalizedQuery = String.join(" ", queryTokens);
+        List<Entry> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.matchesAll(others)) {
+                matches.add(entry);
+            }
+        }
+
+        return matches.stream()
+                .sorted(Comparator
+                        .comparingInt((Entry e) -> e.title.startsWith(normalizedQuery) ? 0 : 1)
+                        .thenComparingInt(e -> e.title.length())
+                        .thenComparing(e -> e.title))
+                .limit(limit)
+                .map(e -> e.suggestion)
+                .toList();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final BookSuggestionDTO suggestion;
+        private final String title;
+        private final List<String> tokens;
+
+        private Entry(BookSuggestionDTO suggestion, String title, List<String> tokens) {
+            this.suggestion = suggestion;
+            this.title = title;
+            this.tokens = tokens;
+        }
+
+        private boolean matchesAll(List<String> prefixes) {
+            for (String prefix : prefixes) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(prefix))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
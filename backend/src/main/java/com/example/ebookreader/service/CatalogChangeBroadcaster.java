@@ -0,0 +1,115 @@
+package com.example.ebookreader.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.dto.BookChangeDTO;
+import com.example.ebookreader.dto.ChapterChangeDTO;
+import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Chapter;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Рассылка изменений каталога подписчикам GraphQL (bookChanged, chapterPublished).
+ * Источник — те же события BookChangedEvent/ChapterChangedEvent после коммита,
+ * что публикуют AdminServiceImpl и GraphQL-мутации.
+ *
+ * У каждой темы (весь каталог, главы конкретной книги) свой multicast-sink, поэтому
+ * событие получают только подписчики его темы; тема главы удаляется, когда уходит
+ * последний подписчик. У каждого подписчика свой ограниченный буфер: медленное
+ * соединение теряет самые старые уведомления, но не задерживает остальных.
+ */
+@Component
+public class CatalogChangeBroadcaster {
+
+    private final int bufferSize;
+    private final Sinks.Many<BookChangeDTO> books = newTopic();
+    private final Map<Long, Topic> chaptersByBook = new ConcurrentHashMap<>();
+
+    public CatalogChangeBroadcaster(@Value("${app.graphql.subscriptions.buffer-size:64}") int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public Flux<BookChangeDTO> bookChanges() {
+        return bounded(books.asFlux());
+    }
+
+    public Flux<ChapterChangeDTO> chapterChanges(Long bookId) {
+        return Flux.defer(() -> {
+            Topic topic = chaptersByBook.compute(bookId, (id, existing) -> {
+                Topic acquired = existing != null ? existing : new Topic();
+                acquired.subscribers++;
+                return acquired;
+            });
+            return bounded(topic.sink.asFlux()).doFinally(signal -> release(bookId, topic));
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        emit(books, new BookChangeDTO(event.getType().name(), event.getBookId(), event.getBook()));
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            // Подписчики глав удалённой книги получают завершение потока
+            Topic topic = chaptersByBook.remove(event.getBookId());
+            if (topic != null) {
+                topic.sink.tryEmitComplete();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChapterChanged(ChapterChangedEvent event) {
+        Topic topic = chaptersByBook.get(event.getBookId());
+        if (topic == null) {
+            return; // На главы этой книги никто не подписан
+        }
+        Chapter chapter = event.getChapter();
+        ChapterDTO toc = new ChapterDTO(chapter.getId(), chapter.getChapterOrder(), chapter.getTitle(), null,
+                chapter.getContentHash());
+        emit(topic.sink, new ChapterChangeDTO(event.getType().name(), event.getBookId(), toc));
+    }
+
+    public int topicCount() {
+        return chaptersByBook.size();
+    }
+
+    private <T> Flux<T> bounded(Flux<T> topic) {
+        return topic.onBackpressureBuffer(bufferSize, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    // Счётчик подписчиков меняется только внутри compute, поэтому тема не может быть
+    // удалена между подпиской нового клиента и уходом последнего старого
+    private void release(Long bookId, Topic topic) {
+        chaptersByBook.computeIfPresent(bookId, (id, current) ->
+                current == topic && --current.subscribers == 0 ? null : current);
+    }
+
+    // directBestEffort: sink не буферизует сам и не завершается без подписчиков,
+    // переполнение решает буфер подписчика
+    private static <T> Sinks.Many<T> newTopic() {
+        return Sinks.many().multicast().directBestEffort();
+    }
+
+    // Слушатели событий могут вызываться из разных потоков одновременно: при конкурентной
+    // отправке повторяем, отсутствие подписчиков ошибкой не считается
+    private static <T> void emit(Sinks.Many<T> topic, T value) {
+        while (topic.tryEmitNext(value) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static final class Topic {
+        private final Sinks.Many<ChapterChangeDTO> sink = newTopic();
+        private int subscribers;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ebookreader.service;
+
+import java.util.List;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.ChapterRepository;
+
+/**
+ * Дозаполняет производные поля глав, сохранённых до их появления.
+ * Работает пачками в отдельных транзакциях, чтобы не загружать все главы сразу.
+ */
+@Component
+public class ChapterBackfill {
+
+    private final ChapterRepository chapterRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ChapterBackfill(ChapterRepository chapterRepository, PlatformTransactionManager transactionManager) {
+        this.chapterRepository = chapterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<Chapter> batch = chapterRepository.findTop200ByContentHashIsNullOrPageOffsetsIsNullOrContentLengthIsNull();
+                batch.forEach(Chapter::computeDerivedFields);
+                return !batch.isEmpty();
+            }));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ebookreader.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Chapter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Кэш готовых представлений глав по ключу (bookId, chapterOrder).
+ * Ограничен суммарным размером в байтах (W-TinyLFU вытеснение Caffeine);
+ * хранит JSON в UTF-8 и его gzip-вариант, поэтому чтение главы не требует
+ * ни сериализации, ни сжатия. После коммита изменения главы её представление
+ * рендерится заново и кладётся в кэш сразу (write-through).
+ *
+ * Загрузка, прочитавшая главу до коммита, может закончиться уже после него. Поэтому
+ * версии (contentHash) из событий коммита запоминаются на VERSION_TTL, и загруженное
+ * представление кладётся в кэш, только если совпадает с последней закоммиченной версией;
+ * проверка и запись выполняются атомарно для ключа, как и запись из события.
+ */
+@Component
+public class ChapterContentCache {
+
+    // Оценка накладных расходов на запись: ключ, объект записи, заголовки массивов
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    // Сколько помнить версии из событий коммита: заведомо дольше любой загрузки главы
+    private static final Duration VERSION_TTL = Duration.ofMinutes(1);
+    // Версия удалённой главы или освобождённого номера
+    private static final String REMOVED = "";
+
+    private final ChapterRenderer renderer;
+    private final Cache<Key, RenderedChapter> cache;
+    private final Cache<Key, String> committedVersions;
+    private final Cache<Long, Boolean> deletedBooks;
+
+    public ChapterContentCache(ChapterRenderer renderer,
+                               @Value("${app.cache.chapters.max-bytes:67108864}") long maxBytes) {
+        this.renderer = renderer;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, RenderedChapter value) -> weight(value))
+                .recordStats()
+                .build();
+        this.committedVersions = Caffeine.newBuilder().expireAfterWrite(VERSION_TTL).build();
+        this.deletedBooks = Caffeine.newBuilder().expireAfterWrite(VERSION_TTL).build();
+    }
+
+    public Optional<RenderedChapter> get(Long bookId, int chapterOrder, Supplier<Optional<Chapter>> loader) {
+        // Отсутствующие главы не кэшируются: загрузчик вернёт null. Устаревшее представление
+        // отдаётся этому запросу, но в кэш не попадает
+        RenderedChapter[] loaded = new RenderedChapter[1];
+        RenderedChapter cached = cache.get(new Key(bookId, chapterOrder), key -> {
+            loaded[0] = loader.get().map(renderer::render).orElse(null);
+            return loaded[0] != null && isCurrent(key, loaded[0]) ? loaded[0] : null;
+        });
+        return Optional.ofNullable(cached != null ? cached : loaded[0]);
+    }
+
+    /**
+     * Главы с номерами from..to. Отсутствующие в кэше загружаются одним запросом
+     * loader(min, max) по диапазону недостающих номеров.
+     */
+    public List<RenderedChapter> getRange(Long bookId, int from, int to,
+                                          BiFunction<Integer, Integer, List<Chapter>> loader) {
+        List<Key> keys = IntStream.rangeClosed(from, to).mapToObj(order -> new Key(bookId, order)).toList();
+        Map<Key, RenderedChapter> found = new HashMap<>(cache.getAllPresent(keys));
+        List<Key> missing = new ArrayList<>();
+        for (Key key : keys) {
+            if (!found.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            int min = missing.stream().mapToInt(Key::chapterOrder).min().orElse(from);
+            int max = missing.stream().mapToInt(Key::chapterOrder).max().orElse(to);
+            for (Chapter chapter : loader.apply(min, max)) {
+                Key key = new Key(bookId, chapter.getChapterOrder());
+                if (missing.contains(key)) {
+                    RenderedChapter rendered = renderer.render(chapter);
+                    found.put(key, rendered);
+                    putIfCurrent(key, rendered);
+                }
+            }
+        }
+        return keys.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public boolean contains(Long bookId, int chapterOrder) {
+        return cache.getIfPresent(new Key(bookId, chapterOrder)) != null;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChapterChanged(ChapterChangedEvent event) {
+        Chapter chapter = event.getChapter();
+        if (event.getPreviousOrder() != null) {
+            Key previous = new Key(event.getBookId(), event.getPreviousOrder());
+            committedVersions.put(previous, REMOVED);
+            cache.invalidate(previous);
+        }
+        Key key = new Key(event.getBookId(), chapter.getChapterOrder());
+        if (event.getType() == ChapterChangedEvent.Type.DELETED) {
+            committedVersions.put(key, REMOVED);
+            cache.invalidate(key);
+        } else {
+            RenderedChapter rendered = renderer.render(chapter);
+            committedVersions.put(key, rendered.getVersion());
+            cache.put(key, rendered);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            deletedBooks.put(event.getBookId(), Boolean.TRUE);
+            cache.asMap().keySet().removeIf(key -> key.bookId().equals(event.getBookId()));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        // Размер и вес обновляются асинхронно — выполняем отложенное обслуживание перед чтением
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("weightedBytes", cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        result.put("maxBytes", cache.policy().eviction().map(e -> e.getMaximum()).orElse(0L));
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("evictedBytes", stats.evictionWeight());
+        return result;
+    }
+
+    // Запись загруженного представления атомарно с проверкой версии (под блокировкой ключа)
+    private void putIfCurrent(Key key, RenderedChapter rendered) {
+        cache.asMap().compute(key, (k, existing) -> isCurrent(k, rendered) ? rendered : existing);
+    }
+
+    private boolean isCurrent(Key key, RenderedChapter rendered) {
+        if (deletedBooks.getIfPresent(key.bookId()) != null) {
+            return false;
+        }
+        String committed = committedVersions.getIfPresent(key);
+        return committed == null || committed.equals(rendered.getVersion());
+    }
+
+    record Key(Long bookId, int chapterOrder) {
+    }
+
+    private static int weight(RenderedChapter rendered) {
+        return ENTRY_OVERHEAD_BYTES + rendered.getJson().length + rendered.getGzip().length;
+    }
+}
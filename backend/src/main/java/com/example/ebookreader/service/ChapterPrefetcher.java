@@ -0,0 +1,66 @@
+package com.example.ebookreader.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.example.ebookreader.repository.ChapterRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Фоновый прогрев кэша следующей главы, пока читатель читает текущую.
+ * Пул и очередь ограничены; при переполнении задачи отбрасываются —
+ * прогрев необязателен и не должен отнимать ресурсы у обычных запросов.
+ */
+@Component
+public class ChapterPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChapterPrefetcher.class);
+
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final ChapterRepository chapterRepository;
+    private final ChapterContentCache chapterCache;
+    private final ThreadPoolExecutor executor;
+
+    public ChapterPrefetcher(ChapterRepository chapterRepository, ChapterContentCache chapterCache) {
+        this.chapterRepository = chapterRepository;
+        this.chapterCache = chapterCache;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chapter-prefetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void prefetchNext(Long bookId, int chapterOrder) {
+        int next = chapterOrder + 1;
+        if (chapterCache.contains(bookId, next)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                chapterCache.get(bookId, next, () -> chapterRepository.findByBookIdAndChapterOrder(bookId, next));
+            } catch (RuntimeException e) {
+                log.warn("Не удалось предзагрузить главу {} книги {}: {}", next, bookId, e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
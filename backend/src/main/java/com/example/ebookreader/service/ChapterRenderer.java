@@ -0,0 +1,57 @@
+package com.example.ebookreader.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.model.Chapter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Превращает главу в готовые к отправке байты: JSON тем же ObjectMapper,
+ * что и у MVC, плюс gzip с максимальной степенью сжатия (сжатие выполняется
+ * один раз при записи/первом чтении, поэтому его стоимость не важна).
+ */
+@Component
+public class ChapterRenderer {
+
+    private final ObjectMapper objectMapper;
+
+    public ChapterRenderer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public RenderedChapter render(Chapter chapter) {
+        if (chapter.getContentHash() == null) {
+            chapter.computeDerivedFields();
+        }
+        ChapterDTO dto = new ChapterDTO(chapter.getId(), chapter.getChapterOrder(), chapter.getTitle(),
+                chapter.getContent(), chapter.getContentHash());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            return new RenderedChapter(dto.getId(), dto.getChapterOrder(), dto.getVersion(), json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать главу " + chapter.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
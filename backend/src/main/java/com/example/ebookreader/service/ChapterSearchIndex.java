@@ -0,0 +1,269 @@
+package com.example.ebookreader.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.charfilter.MappingCharFilter;
+import org.apache.lucene.analysis.charfilter.NormalizeCharMap;
+import org.apache.lucene.analysis.ru.RussianAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.dto.ChapterSearchHitDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Встроенный (Lucene) инвертированный индекс по тексту глав.
+ * Хранится на диске в app.search.index-dir и обновляется после коммита
+ * изменений глав и книг; при пустом индексе заполняется из БД на старте.
+ */
+@Component
+public class ChapterSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ChapterSearchIndex.class);
+
+    private static final String F_ID = "id";
+    private static final String F_BOOK_ID = "bookId";
+    private static final String F_BOOK_TITLE = "bookTitle";
+    private static final String F_ORDER = "chapterOrder";
+    private static final String F_TITLE = "title";
+    private static final String F_CONTENT = "content";
+
+    // Текст главы индексируется с позициями и смещениями — подсветка не требует повторного анализа
+    private static final FieldType CONTENT_TYPE = new FieldType(TextField.TYPE_STORED);
+    static {
+        CONTENT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_TYPE.freeze();
+    }
+
+    private final BookRepository bookRepository;
+    private final ChapterRepository chapterRepository;
+    private final Path indexDir;
+    private final Analyzer analyzer = createAnalyzer();
+
+    private FSDirectory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    public ChapterSearchIndex(BookRepository bookRepository,
+                              ChapterRepository chapterRepository,
+                              @Value("${app.search.index-dir:data/chapter-index}") String indexDir) {
+        this.bookRepository = bookRepository;
+        this.chapterRepository = chapterRepository;
+        this.indexDir = Paths.get(indexDir);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(indexDir);
+        directory = FSDirectory.open(indexDir);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (writer.getDocStats().numDocs == 0) {
+            rebuild();
+        }
+    }
+
+    // Полная переиндексация: по одной книге за раз, чтобы не держать в памяти весь корпус
+    public synchronized void rebuild() {
+        try {
+            writer.deleteAll();
+            for (Book book : bookRepository.findAll()) {
+                for (Chapter chapter : chapterRepository.findByBookIdOrderByChapterOrderAsc(book.getId())) {
+                    writer.addDocument(toDocument(chapter));
+                }
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onChapterChanged(ChapterChangedEvent event) {
+        try {
+            Term idTerm = new Term(F_ID, event.getChapterId().toString());
+            if (event.getType() == ChapterChangedEvent.Type.DELETED) {
+                writer.deleteDocuments(idTerm);
+            } else {
+                writer.updateDocument(idTerm, toDocument(event.getChapter()));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        try {
+            Term bookTerm = new Term(F_BOOK_ID, event.getBookId().toString());
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                writer.deleteDocuments(bookTerm);
+            } else if (event.getType() == BookChangedEvent.Type.UPDATED) {
+                // Название книги хранится в документах глав — переиндексируем главы книги
+                writer.deleteDocuments(bookTerm);
+                for (Chapter chapter : chapterRepository.findByBookIdOrderByChapterOrderAsc(event.getBookId())) {
+                    writer.addDocument(toDocument(chapter));
+                }
+            } else {
+                return;
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Поиск по тексту и названиям глав.
+     * @param bookId ограничение одной книгой или null для поиска по всему каталогу
+     */
+    public List<ChapterSearchHitDTO> search(Long bookId, String queryText, int limit) {
+        if (queryText == null || queryText.isBlank()) {
+            return List.of();
+        }
+
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, Map.of(F_TITLE, 2.0f, F_CONTENT, 1.0f));
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query textQuery = parser.parse(queryText);
+
+        Query query = textQuery;
+        if (bookId != null) {
+            query = new BooleanQuery.Builder()
+                    .add(textQuery, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(F_BOOK_ID, bookId.toString())), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query, limit);
+            UnifiedHighlighter highlighter = UnifiedHighlighter.builder(searcher, analyzer)
+                    .withFormatter(new DefaultPassageFormatter("<mark>", "</mark>", "…", true))
+                    .withMaxLength(Integer.MAX_VALUE - 1)
+                    .withMaxNoHighlightPassages(1)
+                    .build();
+            String[] snippets = highlighter.highlight(F_CONTENT, textQuery, topDocs, 2);
+
+            List<ChapterSearchHitDTO> hits = new ArrayList<>(topDocs.scoreDocs.length);
+            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                Document doc = searcher.storedFields().document(scoreDoc.doc);
+                hits.add(new ChapterSearchHitDTO(
+                        Long.valueOf(doc.get(F_BOOK_ID)),
+                        doc.get(F_BOOK_TITLE),
+                        Long.valueOf(doc.get(F_ID)),
+                        doc.getField(F_ORDER).numericValue().intValue(),
+                        doc.get(F_TITLE),
+                        snippets[i],
+                        scoreDoc.score));
+            }
+            return hits;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    log.warn("Не удалось освободить searcher индекса: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    private static Document toDocument(Chapter chapter) {
+        Document doc = new Document();
+        doc.add(new StringField(F_ID, chapter.getId().toString(), Field.Store.YES));
+        doc.add(new StringField(F_BOOK_ID, chapter.getBook().getId().toString(), Field.Store.YES));
+        doc.add(new StoredField(F_BOOK_TITLE, chapter.getBook().getTitle()));
+        doc.add(new StoredField(F_ORDER, chapter.getChapterOrder()));
+        doc.add(new TextField(F_TITLE, chapter.getTitle() != null ? chapter.getTitle() : "", Field.Store.YES));
+        doc.add(new Field(F_CONTENT, chapter.getContent() != null ? chapter.getContent() : "", CONTENT_TYPE));
+        return doc;
+    }
+
+    // Русская морфология (snowball) + приведение ё к е до токенизации
+    private static Analyzer createAnalyzer() {
+        NormalizeCharMap.Builder mapping = new NormalizeCharMap.Builder();
+        mapping.add("ё", "е");
+        mapping.add("Ё", "Е");
+        NormalizeCharMap charMap = mapping.build();
+        Analyzer russian = new RussianAnalyzer();
+
+        return new AnalyzerWrapper(Analyzer.PER_FIELD_REUSE_STRATEGY) {
+            @Override
+            protected Analyzer getWrappedAnalyzer(String fieldName) {
+                return russian;
+            }
+
+            @Override
+            protected Reader wrapReader(String fieldName, Reader reader) {
+                return new MappingCharFilter(charMap, reader);
+            }
+        };
+    }
+}
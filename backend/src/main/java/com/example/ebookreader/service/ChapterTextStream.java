@@ -0,0 +1,64 @@
+package com.example.ebookreader.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.example.ebookreader.repository.ChapterRepository;
+
+/**
+ * Диапазон символов текста главы, отдаваемый потоком.
+ * Диапазон читается из БД одним запросом: в UTF-8 символы переменной длины, и PostgreSQL
+ * не может перейти к байтовому смещению символа, так что substring() всегда распаковывает
+ * значение от начала до конца диапазона — чтение кусками перечитывало бы префикс на каждом
+ * куске (квадратично по длине главы). Клиенту текст уходит кусками по SLICE_CHARS
+ * с flush после каждого, а соединение с БД к началу записи в сокет уже освобождено.
+ */
+public final class ChapterTextStream {
+
+    static final int SLICE_CHARS = 16 * 1024;
+
+    private final ChapterRepository chapterRepository;
+    private final Long chapterId;
+    private final String version;
+    private final int totalLength;
+    private final int offset;
+    private final int length;
+
+    public ChapterTextStream(ChapterRepository chapterRepository, Long chapterId, String version,
+                             int totalLength, int offset, int length) {
+        this.chapterRepository = chapterRepository;
+        this.chapterId = chapterId;
+        this.version = version;
+        this.totalLength = totalLength;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public String getVersion() { return version; }
+    public int getTotalLength() { return totalLength; }
+    public int getOffset() { return offset; }
+    public int getLength() { return length; }
+
+    public boolean isPartial() {
+        return offset > 0 || length < totalLength;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        String text = chapterRepository.findContentSlice(chapterId, version, offset + 1, length)
+                .orElseThrow(() -> new IOException("Глава " + chapterId + " изменилась до начала передачи"));
+        for (int position = 0; position < text.length(); ) {
+            int end = Math.min(text.length(), position + SLICE_CHARS);
+            // Не разрываем суррогатную пару между кусками
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--;
+            }
+            out.write(text.substring(position, end).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            position = end;
+        }
+    }
+}
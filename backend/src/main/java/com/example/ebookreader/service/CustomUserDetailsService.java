@@ -2,6 +2,8 @@ package com.example.ebookreader.service;
 
 import java.util.Collections;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,6 +16,8 @@ import com.example.ebookreader.repository.UserRepository;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
     
     @Autowired
     private UserRepository userRepository;
@@ -24,9 +28,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByNickname(nickname)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + nickname));
         
-        System.out.println("✅ Loading user by nickname: " + nickname);
-        System.out.println("   User ID: " + user.getId());
-        System.out.println("   User role: " + user.getRole());
+        log.debug("Загружен пользователь по nickname: {} (id={}, role={})", nickname, user.getId(), user.getRole());
         
         return new org.springframework.security.core.userdetails.User(
                 user.getNickname(),
@@ -40,9 +42,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
         
-        System.out.println("✅ Loading user by ID: " + userId);
-        System.out.println("   User nickname: " + user.getNickname());
-        System.out.println("   User role: " + user.getRole());
+        log.debug("Загружен пользователь по id: {} (nickname={}, role={})", userId, user.getNickname(), user.getRole());
         
         return new org.springframework.security.core.userdetails.User(
                 user.getNickname(),  // nickname для UserDetails
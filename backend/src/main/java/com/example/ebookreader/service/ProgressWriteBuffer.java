@@ -0,0 +1,256 @@
+package com.example.ebookreader.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.UserChangedEvent;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.UserBookRepository;
+import com.example.ebookreader.repository.UserBookRepositoryCustom.ProgressUpdate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Отложенная запись прогресса чтения. Клиент шлёт прогресс на каждой странице, а в БД
+ * важно только последнее значение: записи копятся в памяти по (userId, bookId), более
+ * новая глава заменяет прежнюю, и раз в flush-interval-ms (или при max-pending ключах)
+ * всё уходит в user_books одним JDBC-батчем upsert. При штатной остановке буфер сбрасывается.
+ *
+ * Чтение прогресса накладывает ещё не записанное значение поверх строки из БД
+ * (см. pendingChapter и pendingForUser — его берёт библиотека пользователя, чтобы не ждать
+ * сброса). Отбрасываются только записи, которые БД отвергла (книга или пользователь удалены);
+ * при недоступной БД прогресс остаётся в буфере до следующего сброса. При аварийной
+ * остановке теряется не больше одного интервала.
+ */
+@Component
+public class ProgressWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressWriteBuffer.class);
+
+    private final UserBookRepository userBookRepository;
+    private final BookRepository bookRepository;
+    private final int maxPending;
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    // Книги с отложенным прогрессом по пользователю — чтобы не перебирать весь буфер.
+    // Меняется только через compute по userId, поэтому для одного пользователя изменения упорядочены
+    private final Map<Long, Set<Long>> booksByUser = new ConcurrentHashMap<>();
+    // Книги, существование которых уже проверено: повторная запись прогресса обходится без запросов
+    private final Cache<Long, Boolean> knownBooks;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    public ProgressWriteBuffer(UserBookRepository userBookRepository, BookRepository bookRepository,
+                               @Value("${app.progress.flush-interval-ms:2000}") long flushIntervalMillis,
+                               @Value("${app.progress.max-pending:1000}") int maxPending) {
+        this.userBookRepository = userBookRepository;
+        this.bookRepository = bookRepository;
+        this.maxPending = maxPending;
+        this.knownBooks = Caffeine.newBuilder().maximumSize(10_000).build();
+        this.flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "progress-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Запоминает главу для последующей записи.
+     *
+     * @return false, если книги нет
+     */
+    public boolean record(Long userId, Long bookId, int chapter) {
+        if (!bookExists(bookId)) {
+            return false;
+        }
+        pending.put(new Key(userId, bookId), new Pending(chapter, Instant.now()));
+        booksByUser.compute(userId, (id, books) -> {
+            Set<Long> result = books != null ? books : ConcurrentHashMap.newKeySet();
+            result.add(bookId);
+            return result;
+        });
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+        return true;
+    }
+
+    // Ещё не записанная в БД глава или null
+    public Integer pendingChapter(Long userId, Long bookId) {
+        Pending entry = pending.get(new Key(userId, bookId));
+        return entry != null ? entry.chapter() : null;
+    }
+
+    // Отложенный прогресс пользователя по книгам; без отложенных записей — пустая карта
+    Map<Long, Pending> pendingForUser(Long userId) {
+        Set<Long> books = booksByUser.get(userId);
+        if (books == null) {
+            return Map.of();
+        }
+        Map<Long, Pending> result = new HashMap<>();
+        for (Long bookId : books) {
+            Pending entry = pending.get(new Key(userId, bookId));
+            if (entry != null) {
+                result.put(bookId, entry);
+            }
+        }
+        return result;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public long flushedRows() {
+        return flushedRows.get();
+    }
+
+    /**
+     * Записывает накопленное одним батчем. Ключ удаляется из буфера, только если за время
+     * записи его значение не сменилось — иначе более новая глава уйдёт следующим сбросом.
+     */
+    public synchronized int flush() {
+        flushRequested.set(false);
+        List<ProgressUpdate> batch = new ArrayList<>();
+        pending.forEach((key, entry) ->
+                batch.add(new ProgressUpdate(key.userId(), key.bookId(), entry.chapter(), entry.readAt())));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int processed = 0;
+        try {
+            userBookRepository.upsertProgress(batch);
+            batch.forEach(this::removeWritten);
+            processed = batch.size();
+        } catch (DataIntegrityViolationException e) {
+            // Книга или пользователь удалены после записи в буфер: пишем по одной,
+            // отбрасывая то, что записать нельзя, чтобы одна строка не блокировала остальные
+            log.warn("Пакетная запись прогресса не удалась, запись по одной: {}", e.getMessage());
+            for (ProgressUpdate update : batch) {
+                if (!writeSingle(update)) {
+                    break;
+                }
+                processed++;
+            }
+        } catch (DataAccessException e) {
+            // БД недоступна или перегружена: записи остаются в буфере до следующего сброса
+            log.warn("Не удалось записать прогресс ({} записей), повтор при следующем сбросе: {}",
+                    batch.size(), e.getMessage());
+        }
+        flushedRows.addAndGet(processed);
+        return processed;
+    }
+
+    // false — БД не приняла запись не из-за её содержимого, дальше по одной писать бессмысленно
+    private boolean writeSingle(ProgressUpdate update) {
+        try {
+            userBookRepository.upsertProgress(update);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Прогресс пользователя {} по книге {} отброшен: {}", update.userId(), update.bookId(), e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Не удалось записать прогресс, повтор при следующем сбросе: {}", e.getMessage());
+            return false;
+        }
+        removeWritten(update);
+        return true;
+    }
+
+    private void removeWritten(ProgressUpdate update) {
+        Key key = new Key(update.userId(), update.bookId());
+        if (pending.remove(key, new Pending(update.chapter(), update.readAt()))) {
+            unindex(key);
+        }
+    }
+
+    // Книга остаётся в индексе, если прогресс по ней успели записать в буфер заново
+    private void unindex(Key key) {
+        booksByUser.computeIfPresent(key.userId(), (id, books) -> {
+            if (!pending.containsKey(key)) {
+                books.remove(key.bookId());
+            }
+            return books.isEmpty() ? null : books;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать прогресс чтения: {}", e.getMessage());
+        }
+    }
+
+    private boolean bookExists(Long bookId) {
+        if (knownBooks.getIfPresent(bookId) != null) {
+            return true;
+        }
+        // Отсутствие не кэшируем: книга может появиться
+        if (bookRepository.existsById(bookId)) {
+            knownBooks.put(bookId, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.Type.DELETED) {
+            knownBooks.invalidate(event.getBookId());
+            for (Key key : pending.keySet()) {
+                if (key.bookId().equals(event.getBookId()) && pending.remove(key) != null) {
+                    unindex(key);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            Set<Long> books = booksByUser.remove(event.getUserId());
+            if (books != null) {
+                books.forEach(bookId -> pending.remove(new Key(event.getUserId(), bookId)));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    record Key(Long userId, Long bookId) {
+    }
+
+    // Время чтения фиксируется при получении прогресса, а не при сбросе
+    record Pending(int chapter, Instant readAt) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.ReaderBundleDTO;
+
+public interface ReaderService {
+    /**
+     * @param userId id авторизованного пользователя или null для анонимного чтения
+     */
+    ReaderBundleDTO getBundle(Long bookId, Long userId);
+}
@@ -0,0 +1,42 @@
+package com.example.ebookreader.service;
+
+/**
+ * Глава, заранее сериализованная в JSON (формат ChapterDTO) и сжатая gzip.
+ * Отдаётся клиенту как есть, без Jackson и сжатия на каждый запрос.
+ */
+public final class RenderedChapter {
+
+    private final Long id;
+    private final Integer chapterOrder;
+    private final String version;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    public RenderedChapter(Long id, Integer chapterOrder, String version, byte[] json, byte[] gzip) {
+        this.id = id;
+        this.chapterOrder = chapterOrder;
+        this.version = version;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getChapterOrder() {
+        return chapterOrder;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ebookreader.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Token bucket по маршрутам в форме GCRA: состояние ведра — один long
+ * («теоретическое время прихода» следующего запроса), обновляемый CAS без блокировок.
+ * Ведро вмещает capacity запросов и полностью наполняется за period.
+ * Ключ — id пользователя или IP клиента; вёдра простаивающих ключей вытесняются
+ * через period (к этому моменту ведро всё равно было бы полным).
+ */
+public class RequestRateLimiter {
+
+    private final List<Rule> rules;
+
+    public RequestRateLimiter(List<Rule> rules, long maxKeysPerRule) {
+        this.rules = rules;
+        rules.forEach(rule -> rule.init(maxKeysPerRule));
+    }
+
+    public static Rule rule(String name, String method, String pattern, int capacity, Duration period) {
+        return new Rule(name, method, pattern, capacity, period);
+    }
+
+    /**
+     * Списывает запрос с ведра первого подходящего правила.
+     *
+     * @return 0 — запрос разрешён (или ни одно правило не подошло), иначе сколько наносекунд ждать
+     */
+    public long tryAcquire(String method, String path, Object key) {
+        return tryAcquire(method, path, () -> key);
+    }
+
+    // Ключ вычисляется, только если маршрут под правилом
+    public long tryAcquire(String method, String path, Supplier<?> key) {
+        Rule rule = find(method, path);
+        return rule == null ? 0 : rule.tryAcquire(key.get(), System.nanoTime());
+    }
+
+    private Rule find(String method, String path) {
+        PathContainer container = null;
+        for (Rule rule : rules) {
+            // Дешёвая отсечка по методу и литеральному префиксу — большинство запросов ни под одно правило не попадают
+            if ((rule.method != null && !rule.method.equals(method)) || !path.startsWith(rule.prefix)) {
+                continue;
+            }
+            if (rule.simple) {
+                if (rule.matchesSimple(path)) {
+                    return rule;
+                }
+                continue;
+            }
+            if (container == null) {
+                container = PathContainer.parsePath(path);
+            }
+            if (rule.pattern.matches(container)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Rule rule : rules) {
+            Map<String, Object> ruleStats = new LinkedHashMap<>();
+            ruleStats.put("route", (rule.method != null ? rule.method + " " : "") + rule.pattern.getPatternString());
+            ruleStats.put("capacity", rule.capacity);
+            ruleStats.put("periodSeconds", rule.period.toSeconds());
+            ruleStats.put("allowed", rule.allowed.sum());
+            ruleStats.put("rejected", rule.rejected.sum());
+            ruleStats.put("keys", rule.buckets.estimatedSize());
+            stats.put(rule.name, ruleStats);
+        }
+        return stats;
+    }
+
+    public static final class Rule {
+
+        private final String name;
+        private final String method;
+        private final PathPattern pattern;
+        private final String prefix;
+        // Литеральный путь или литерал + "/**": сопоставляется без разбора пути
+        private final boolean simple;
+        private final boolean subtree;
+        private final int capacity;
+        private final Duration period;
+        // Интервал между запросами при равномерной нагрузке и допустимый «запас» всплеска
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private Cache<Object, AtomicLong> buckets;
+
+        private Rule(String name, String method, String pattern, int capacity, Duration period) {
+            if (capacity < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Некорректный лимит для " + name);
+            }
+            this.name = name;
+            this.method = method;
+            this.pattern = PathPatternParser.defaultInstance.parse(pattern);
+            int wildcard = indexOfAny(pattern, "*{?");
+            // "/a/b/**" совпадает и с "/a/b" — хвостовой слэш в префикс не берём
+            String literal = wildcard < 0 ? pattern : pattern.substring(0, wildcard);
+            this.prefix = literal.endsWith("/") ? literal.substring(0, literal.length() - 1) : literal;
+            this.subtree = wildcard >= 0 && pattern.equals(prefix + "/**");
+            this.simple = wildcard < 0 || subtree;
+            this.capacity = capacity;
+            this.period = period;
+            this.intervalNanos = period.toNanos() / capacity;
+            this.toleranceNanos = intervalNanos * (capacity - 1);
+        }
+
+        private void init(long maxKeys) {
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(period.toNanos(), TimeUnit.NANOSECONDS)
+                    .build();
+        }
+
+        private boolean matchesSimple(String path) {
+            // startsWith(prefix) уже проверен
+            return path.length() == prefix.length()
+                    || (subtree && path.charAt(prefix.length()) == '/');
+        }
+
+        long tryAcquire(Object key, long now) {
+            AtomicLong arrival = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = arrival.get();
+                long base = current - now > 0 ? current : now;
+                long excess = base - now - toleranceNanos;
+                if (excess > 0) {
+                    rejected.increment();
+                    return excess;
+                }
+                if (arrival.compareAndSet(current, base + intervalNanos)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        private static int indexOfAny(String value, String chars) {
+            for (int i = 0; i < value.length(); i++) {
+                if (chars.indexOf(value.charAt(i)) >= 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
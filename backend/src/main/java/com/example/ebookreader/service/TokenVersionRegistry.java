@@ -0,0 +1,53 @@
+package com.example.ebookreader.service;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ebookreader.config.VerifiedToken;
+import com.example.ebookreader.event.UserChangedEvent;
+import com.example.ebookreader.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Текущие версии токенов пользователей в памяти. Токен принимается, только если
+ * его claim "ver" совпадает с версией пользователя, поэтому смена роли или удаление
+ * отзывают выданные токены без обращения к БД на каждом запросе.
+ * Версия пользователя читается из БД и обновляется событием UserChangedEvent.
+ * Событие видит только узел, где произошло изменение, поэтому версия живёт в памяти не дольше
+ * ttl и перечитывается из БД: на остальных узлах кластера отзыв вступает в силу в пределах ttl.
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Версия удалённого пользователя: не совпадает ни с одним токеном
+    private static final int DELETED = -1;
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Integer> versions;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${app.jwt.token-versions-max-size:100000}") long maxSize,
+                                @Value("${app.jwt.token-versions-ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).build();
+    }
+
+    public boolean isCurrent(VerifiedToken token) {
+        return token.getUserId() != null && currentVersion(token.getUserId()) == token.getTokenVersion();
+    }
+
+    public int currentVersion(Long userId) {
+        return versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(DELETED));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        versions.put(event.getUserId(),
+                event.getType() == UserChangedEvent.Type.DELETED ? DELETED : event.getTokenVersion());
+    }
+}
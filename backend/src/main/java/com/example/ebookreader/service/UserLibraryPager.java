@@ -0,0 +1,141 @@
+package com.example.ebookreader.service;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.dto.LibraryItemDTO;
+import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.repository.LibraryEntry;
+import com.example.ebookreader.repository.UserBookRepository;
+import com.example.ebookreader.service.ProgressWriteBuffer.Pending;
+import com.example.ebookreader.util.CursorCodec;
+
+/**
+ * Библиотека пользователя («продолжить чтение»): книги с прогрессом, сначала недавно читанные.
+ * Каждая страница — один запрос проекции с LIMIT по индексу (user_id, last_read_at, id);
+ * курсор содержит время чтения и id записи последнего элемента, OFFSET не используется.
+ *
+ * Ещё не записанный прогресс (ProgressWriteBuffer) накладывается поверх выборки: строка книги
+ * из БД заменяется строкой с отложенной главой и временем чтения, и страница пересортировывается.
+ * Для таких книг — по запросу на книгу, обычно это одна книга, которую пользователь сейчас читает.
+ */
+@Component
+public class UserLibraryPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Тот же порядок, что и в запросе: last_read_at desc, id desc
+    private static final Comparator<Row> ORDER = Comparator.comparing(Row::readAt)
+            .thenComparingLong(Row::sortId)
+            .reversed();
+
+    private final UserBookRepository userBookRepository;
+    private final ProgressWriteBuffer progressBuffer;
+
+    public UserLibraryPager(UserBookRepository userBookRepository, ProgressWriteBuffer progressBuffer) {
+        this.userBookRepository = userBookRepository;
+        this.progressBuffer = progressBuffer;
+    }
+
+    public CursorPage<LibraryItemDTO> page(Long userId, boolean bookmarkedOnly, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Position after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = CursorCodec.decode(cursor, 2);
+            after = new Position(parseInstant(parts[0]), parseId(parts[1]));
+        }
+
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        List<Row> rows = rows(userId, bookmarkedOnly, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(toItems(rows), null);
+        }
+        List<Row> items = rows.subList(0, pageSize);
+        Row last = items.get(pageSize - 1);
+        return new CursorPage<>(toItems(items), CursorCodec.encode(last.readAt().toString(), String.valueOf(last.sortId())));
+    }
+
+    // Все закладки одним запросом, в том же порядке, что и библиотека
+    public List<LibraryItemDTO> bookmarks(Long userId) {
+        return toItems(rows(userId, true, null, null));
+    }
+
+    private List<Row> rows(Long userId, boolean bookmarkedOnly, Position after, Integer limit) {
+        Map<Long, Pending> pending = progressBuffer.pendingForUser(userId);
+        // Строки книг с отложенным прогрессом из выборки убираются — берём их с запасом
+        Limit fetch = limit == null ? Limit.unlimited() : Limit.of(limit + pending.size());
+        List<LibraryEntry> entries = after == null
+                ? userBookRepository.findLibrary(userId, bookmarkedOnly, fetch)
+                : userBookRepository.findLibraryAfter(userId, bookmarkedOnly, after.readAt(), after.id(), fetch);
+
+        List<Row> rows = new ArrayList<>(entries.size() + pending.size());
+        for (LibraryEntry entry : entries) {
+            if (!pending.containsKey(entry.getBookId())) {
+                rows.add(new Row(entry, entry.getCurrentChapter(), entry.getLastReadAt()));
+            }
+        }
+        pending.forEach((bookId, progress) -> {
+            // Книги, прочитанные позже курсора, уже были на предыдущих страницах
+            if (after != null && progress.readAt().isAfter(after.readAt())) {
+                return;
+            }
+            userBookRepository.findPendingLibraryEntry(userId, bookId, progress.chapter())
+                    .map(entry -> new Row(entry, progress.chapter(), progress.readAt()))
+                    .filter(row -> !bookmarkedOnly || row.entry().isBookmarked())
+                    .filter(row -> after == null || row.isAfter(after))
+                    .ifPresent(rows::add);
+        });
+
+        if (pending.isEmpty()) {
+            return rows;
+        }
+        rows.sort(ORDER);
+        return limit == null || rows.size() <= limit ? rows : rows.subList(0, limit);
+    }
+
+    private static List<LibraryItemDTO> toItems(List<Row> rows) {
+        return rows.stream().map(row -> new LibraryItemDTO(row.entry(), row.chapter(), row.readAt())).toList();
+    }
+
+    private static Instant parseInstant(String value) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    private record Position(Instant readAt, Long id) {
+    }
+
+    private record Row(LibraryEntry entry, Integer chapter, Instant readAt) {
+
+        // У книги, прогресс по которой ещё не записан, записи в БД может не быть:
+        // при равном времени такая строка идёт первой
+        long sortId() {
+            return entry.getEntryId() != null ? entry.getEntryId() : Long.MAX_VALUE;
+        }
+
+        boolean isAfter(Position position) {
+            int byTime = readAt.compareTo(position.readAt());
+            return byTime < 0 || (byTime == 0 && sortId() < position.id());
+        }
+    }
+}
@@ -6,16 +6,25 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.ebookreader.dto.BookSort;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.event.UserChangedEvent;
 import com.example.ebookreader.exception.ResourceNotFoundException;
 import com.example.ebookreader.model.Book;
 import com.example.ebookreader.model.Chapter;
@@ -25,27 +34,43 @@ import com.example.ebookreader.repository.ChapterRepository;
 import com.example.ebookreader.repository.UserBookRepository;
 import com.example.ebookreader.repository.UserRepository;
 import com.example.ebookreader.service.AdminService;
+import com.example.ebookreader.service.BookCatalogPager;
+import com.example.ebookreader.service.ChapterContentCache;
+import com.example.ebookreader.service.ChapterSearchIndex;
+import com.example.ebookreader.service.RequestRateLimiter;
 
 @Service
 public class AdminServiceImpl implements AdminService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminServiceImpl.class);
+
     private final BookRepository bookRepository;
     private final ChapterRepository chapterRepository;
     private final UserRepository userRepository;
     private final UserBookRepository userBookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChapterSearchIndex chapterSearchIndex;
+    private final BookCatalogPager catalogPager;
+    private final ChapterContentCache chapterCache;
+    private final RequestRateLimiter rateLimiter;
 
     @Autowired
-    public AdminServiceImpl(BookRepository bookRepository, ChapterRepository chapterRepository, UserRepository userRepository, UserBookRepository userBookRepository) {
+    public AdminServiceImpl(BookRepository bookRepository, ChapterRepository chapterRepository, UserRepository userRepository, UserBookRepository userBookRepository, ApplicationEventPublisher eventPublisher, ChapterSearchIndex chapterSearchIndex, BookCatalogPager catalogPager, ChapterContentCache chapterCache, RequestRateLimiter rateLimiter) {
         this.bookRepository = bookRepository;
         this.chapterRepository = chapterRepository;
         this.userRepository = userRepository;
         this.userBookRepository = userBookRepository;
+        this.eventPublisher = eventPublisher;
+        this.chapterSearchIndex = chapterSearchIndex;
+        this.catalogPager = catalogPager;
+        this.chapterCache = chapterCache;
+        this.rateLimiter = rateLimiter;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public CursorPage<Book> getAllBooks(BookSort sort, String cursor, Integer limit) {
+        return catalogPager.page(sort, cursor, limit);
     }
 
     @Override
@@ -80,7 +105,9 @@ public class AdminServiceImpl implements AdminService {
             newBook.setCoverUrl(fileName);
         }
 
-        return bookRepository.save(newBook);
+        Book saved = bookRepository.save(newBook);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
     @Override
@@ -96,7 +123,9 @@ public class AdminServiceImpl implements AdminService {
             existingBook.setCoverUrl(bookDetails.getCoverUrl());
         }
 
-        return bookRepository.save(existingBook);
+        Book saved = bookRepository.save(existingBook);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.UPDATED, saved));
+        return saved;
     }
 
     /**
@@ -127,10 +156,11 @@ public class AdminServiceImpl implements AdminService {
                 }
                 Files.deleteIfExists(coverPath);
             } catch (IOException e) {
-                System.err.println("Could not delete cover file: " + e.getMessage());
+                log.warn("Не удалось удалить файл обложки: {}", e.getMessage());
             }
         }
         bookRepository.delete(book);
+        eventPublisher.publishEvent(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
     }
 
     @Override
@@ -162,7 +192,9 @@ public class AdminServiceImpl implements AdminService {
         chapter.setChapterOrder(dto.getChapterOrder());
         chapter.setTitle(dto.getTitle());
         chapter.setContent(dto.getContent());
-        return chapterRepository.save(chapter);
+        Chapter saved = chapterRepository.save(chapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.CREATED, saved));
+        return saved;
     }
 
     @Override
@@ -175,11 +207,14 @@ public class AdminServiceImpl implements AdminService {
             throw new IllegalArgumentException("Глава не принадлежит указанной книге");
         }
 
+        Integer previousOrder = existingChapter.getChapterOrder();
         if (dto.getChapterOrder() != null) existingChapter.setChapterOrder(dto.getChapterOrder());
         if (dto.getTitle() != null) existingChapter.setTitle(dto.getTitle());
         if (dto.getContent() != null) existingChapter.setContent(dto.getContent());
 
-        return chapterRepository.save(existingChapter);
+        Chapter saved = chapterRepository.save(existingChapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.UPDATED, saved, previousOrder));
+        return saved;
     }
 
     @Override
@@ -192,6 +227,22 @@ public class AdminServiceImpl implements AdminService {
             throw new IllegalArgumentException("Глава не принадлежит указанной книге");
         }
         chapterRepository.delete(chapter);
+        eventPublisher.publishEvent(new ChapterChangedEvent(ChapterChangedEvent.Type.DELETED, chapter));
+    }
+
+    @Override
+    public void rebuildSearchIndex() {
+        chapterSearchIndex.rebuild();
+    }
+
+    @Override
+    public Map<String, Object> getChapterCacheStats() {
+        return chapterCache.stats();
+    }
+
+    @Override
+    public Map<String, Object> getRateLimitStats() {
+        return rateLimiter.stats();
     }
 
     @Override
@@ -212,12 +263,17 @@ public class AdminServiceImpl implements AdminService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Пользователь не найден"));
         user.setRole(newRole);
-        return userRepository.save(user);
+        // Роль записана в токенах: выданные до изменения токены отзываются
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.UPDATED, saved.getId(), saved.getTokenVersion()));
+        return saved;
     }
 
     @Override
     @Transactional
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(UserChangedEvent.Type.DELETED, id, 0));
     }
 }
@@ -1,49 +1,96 @@
 package com.example.ebookreader.service.impl;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.BookSuggestionDTO;
 import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.ChapterLayoutDTO;
+import com.example.ebookreader.dto.ChapterPageDTO;
+import com.example.ebookreader.dto.ChapterSearchHitDTO;
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.exception.ConflictException;
+import com.example.ebookreader.exception.ResourceNotFoundException;
 import com.example.ebookreader.model.Book;
-import com.example.ebookreader.model.Chapter;
 import com.example.ebookreader.repository.BookRepository;
 import com.example.ebookreader.repository.ChapterRepository;
+import com.example.ebookreader.repository.ChapterSummary;
+import com.example.ebookreader.service.BookCatalogPager;
 import com.example.ebookreader.service.BookService;
+import com.example.ebookreader.service.BookSuggestionIndex;
+import com.example.ebookreader.service.ChapterContentCache;
+import com.example.ebookreader.service.ChapterPrefetcher;
+import com.example.ebookreader.service.ChapterSearchIndex;
+import com.example.ebookreader.service.ChapterTextStream;
+import com.example.ebookreader.service.RenderedChapter;
+import com.example.ebookreader.util.ChapterPaginator;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_CONTENT_HITS = 50;
+    private static final int MAX_CHAPTER_RANGE = 10;
+
     private final BookRepository bookRepository;
     private final ChapterRepository chapterRepository;
+    private final BookSuggestionIndex suggestionIndex;
+    private final ChapterSearchIndex chapterSearchIndex;
+    private final BookCatalogPager catalogPager;
+    private final ChapterContentCache chapterCache;
+    private final ChapterPrefetcher chapterPrefetcher;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, ChapterRepository chapterRepository) {
+    public BookServiceImpl(BookRepository bookRepository, ChapterRepository chapterRepository, BookSuggestionIndex suggestionIndex, ChapterSearchIndex chapterSearchIndex, BookCatalogPager catalogPager, ChapterContentCache chapterCache, ChapterPrefetcher chapterPrefetcher) {
         this.bookRepository = bookRepository;
         this.chapterRepository = chapterRepository;
+        this.suggestionIndex = suggestionIndex;
+        this.chapterSearchIndex = chapterSearchIndex;
+        this.catalogPager = catalogPager;
+        this.chapterCache = chapterCache;
+        this.chapterPrefetcher = chapterPrefetcher;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public CursorPage<Book> getAllBooks(BookSort sort, String cursor, Integer limit) {
+        return catalogPager.page(sort, cursor, limit);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Book> searchBooks(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            return bookRepository.findAll();
+    public List<Book> searchBooks(String query, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)));
+        String normalized = query == null ? "" : query.trim();
+
+        if (normalized.isEmpty()) {
+            return bookRepository.findAllBy(pageable);
         }
-        return bookRepository.findAll().stream()
-                .filter(book -> 
-                    book.getTitle().toLowerCase().contains(query.toLowerCase()) ||
-                    book.getAuthor().toLowerCase().contains(query.toLowerCase()))
-                .collect(Collectors.toList());
+        // Фильтрация и ранжирование выполняются в PostgreSQL по индексам, без загрузки всего каталога
+        return bookRepository.searchRanked(normalized, "%" + escapeLike(normalized) + "%", pageable);
+    }
+
+    @Override
+    public List<BookSuggestionDTO> suggestBooks(String prefix, int limit) {
+        // Подсказки обслуживаются из in-memory индекса, без запросов к БД
+        return suggestionIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
     }
 
     @Override
@@ -55,26 +102,109 @@ public class BookServiceImpl implements BookService {
     @Override
     @Transactional(readOnly = true)
     public List<ChapterDTO> getBookChapters(Long bookId) {
-        List<Chapter> chapters = chapterRepository.findByBookIdOrderByChapterOrderAsc(bookId);
+        // Проекция без content: текст глав для оглавления из БД не читается
+        List<ChapterSummary> chapters = chapterRepository.findSummariesByBookIdOrderByChapterOrderAsc(bookId);
         return chapters.stream()
                 .map(ch -> new ChapterDTO(
                         ch.getId(),
                         ch.getChapterOrder(),
                         ch.getTitle(),
-                        null // Не отдаём контент в списке глав
+                        null, // Не отдаём контент в списке глав
+                        ch.getContentHash()
                 ))
                 .collect(Collectors.toList());
     }
 
+    // Без @Transactional: при попадании в кэш соединение с БД не берётся
     @Override
-    @Transactional(readOnly = true)
-    public Optional<ChapterDTO> getChapter(Long bookId, int chapterOrder) {
-        return chapterRepository.findByBookIdAndChapterOrder(bookId, chapterOrder)
-                .map(ch -> new ChapterDTO(
-                        ch.getId(),
-                        ch.getChapterOrder(),
-                        ch.getTitle(),
-                        ch.getContent()
-                ));
+    public Optional<RenderedChapter> getChapter(Long bookId, int chapterOrder) {
+        Optional<RenderedChapter> chapter = chapterCache.get(bookId, chapterOrder,
+                () -> chapterRepository.findByBookIdAndChapterOrder(bookId, chapterOrder));
+        // Пока читается глава N, главу N + 1 подгружаем в кэш в фоне
+        chapter.ifPresent(c -> chapterPrefetcher.prefetchNext(bookId, chapterOrder));
+        return chapter;
+    }
+
+    @Override
+    public List<RenderedChapter> getChapterRange(Long bookId, int from, int to) {
+        if (from < 1 || to < from) {
+            throw new BadRequestException("Некорректный диапазон глав: " + from + ".." + to);
+        }
+        if (to - from + 1 > MAX_CHAPTER_RANGE) {
+            throw new BadRequestException("За один запрос можно получить не более " + MAX_CHAPTER_RANGE + " глав");
+        }
+        List<RenderedChapter> chapters = chapterCache.getRange(bookId, from, to,
+                (min, max) -> chapterRepository.findByBookIdAndChapterOrderBetweenOrderByChapterOrderAsc(bookId, min, max));
+        if (!chapters.isEmpty()) {
+            chapterPrefetcher.prefetchNext(bookId, chapters.get(chapters.size() - 1).getChapterOrder());
+        }
+        return chapters;
+    }
+
+    @Override
+    public Optional<ChapterLayoutDTO> getChapterLayout(Long bookId, int chapterOrder) {
+        return chapterRepository.findLayout(bookId, chapterOrder)
+                .map(layout -> new ChapterLayoutDTO(
+                        layout.getId(),
+                        layout.getChapterOrder(),
+                        layout.getContentHash(),
+                        layout.getContentLength() != null ? layout.getContentLength() : 0,
+                        ChapterPaginator.PAGE_CHARS,
+                        layout.getParagraphOffsets(),
+                        layout.getPageOffsets()));
+    }
+
+    // Страницы нумеруются с 1, как и главы; текст страницы вырезается в БД по предвычисленным смещениям
+    @Override
+    public Optional<ChapterPageDTO> getChapterPage(Long bookId, int chapterOrder, int page, String version) {
+        return chapterRepository.findLayout(bookId, chapterOrder).map(layout -> {
+            if (version != null && !version.equals(layout.getContentHash())) {
+                throw new ConflictException("Разметка главы устарела (текущая версия " + layout.getContentHash() + ")");
+            }
+            int[] pages = layout.getPageOffsets();
+            int pageCount = pages != null ? pages.length : 0;
+            if (page < 1 || page > pageCount) {
+                throw new ResourceNotFoundException("Страница " + page + " не найдена (всего страниц: " + pageCount + ")");
+            }
+            int start = pages[page - 1];
+            // Последняя страница — до конца текста; пока ChapterBackfill не заполнил длину, читаем до конца
+            int end = page < pageCount ? pages[page]
+                    : layout.getContentLength() != null ? layout.getContentLength() : Integer.MAX_VALUE;
+            String text = chapterRepository.findContentSlice(layout.getId(), layout.getContentHash(), start + 1, end - start)
+                    .orElseThrow(() -> new ConflictException("Глава изменилась, запросите разметку заново"));
+            return new ChapterPageDTO(layout.getId(), layout.getChapterOrder(), layout.getContentHash(),
+                    page, pageCount, start, paragraphAt(layout.getParagraphOffsets(), start), text);
+        });
+    }
+
+    // Индекс абзаца, в который попадает смещение
+    private static int paragraphAt(int[] paragraphOffsets, int offset) {
+        if (paragraphOffsets == null || paragraphOffsets.length == 0) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(paragraphOffsets, offset);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    @Override
+    public Optional<ChapterTextStream> getChapterText(Long bookId, int chapterOrder, int offset, Integer length) {
+        if (offset < 0 || (length != null && length < 0)) {
+            throw new BadRequestException("Некорректный диапазон текста");
+        }
+        return chapterRepository.findTextInfo(bookId, chapterOrder).map(info -> {
+            int total = info.getContentLength() != null ? info.getContentLength() : 0;
+            if (offset > total) {
+                throw new BadRequestException("Смещение " + offset + " за пределами главы длиной " + total);
+            }
+            int available = total - offset;
+            int rangeLength = length != null ? Math.min(length, available) : available;
+            return new ChapterTextStream(chapterRepository, info.getId(), info.getContentHash(), total, offset, rangeLength);
+        });
+    }
+
+    @Override
+    public List<ChapterSearchHitDTO> searchChapterContent(Long bookId, String query, int limit) {
+        // Поиск идёт по встроенному Lucene-индексу, а не SQL LIKE по содержимому глав
+        return chapterSearchIndex.search(bookId, query, Math.max(1, Math.min(limit, MAX_CONTENT_HITS)));
     }
 }
@@ -0,0 +1,62 @@
+package com.example.ebookreader.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.dto.ReaderBundleDTO;
+import com.example.ebookreader.dto.ReadingProgressDTO;
+import com.example.ebookreader.exception.ResourceNotFoundException;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.repository.UserBookRepository;
+import com.example.ebookreader.service.BookService;
+import com.example.ebookreader.service.ProgressWriteBuffer;
+import com.example.ebookreader.service.ReaderService;
+
+@Service
+public class ReaderServiceImpl implements ReaderService {
+
+    private final BookService bookService;
+    private final UserBookRepository userBookRepository;
+    private final ProgressWriteBuffer progressBuffer;
+
+    public ReaderServiceImpl(BookService bookService, UserBookRepository userBookRepository, ProgressWriteBuffer progressBuffer) {
+        this.bookService = bookService;
+        this.userBookRepository = userBookRepository;
+        this.progressBuffer = progressBuffer;
+    }
+
+    // Одна транзакция — одно соединение с БД на все запросы сборки
+    @Override
+    @Transactional(readOnly = true)
+    public ReaderBundleDTO getBundle(Long bookId, Long userId) {
+        Book book = bookService.getBookById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Книга не найдена"));
+        List<ChapterDTO> chapters = bookService.getBookChapters(bookId);
+
+        ReadingProgressDTO progress = userId == null
+                ? new ReadingProgressDTO(1, false)
+                : withPending(userBookRepository.findByUserIdAndBookId(userId, bookId)
+                        .map(ub -> new ReadingProgressDTO(ub.getCurrentChapter(), ub.isBookmarked()))
+                        .orElse(new ReadingProgressDTO(1, false)), userId, bookId);
+
+        // Если главы из прогресса уже нет, открываем первую
+        int order = chapters.stream().anyMatch(ch -> ch.getChapterOrder().equals(progress.getCurrentChapter()))
+                ? progress.getCurrentChapter()
+                : chapters.isEmpty() ? 1 : chapters.get(0).getChapterOrder();
+        String chapter = bookService.getChapter(bookId, order)
+                .map(rendered -> new String(rendered.getJson(), StandardCharsets.UTF_8))
+                .orElse(null);
+
+        return new ReaderBundleDTO(book, chapters, progress, chapter);
+    }
+
+    // Глава из ещё не записанного прогресса важнее строки в БД
+    private ReadingProgressDTO withPending(ReadingProgressDTO stored, Long userId, Long bookId) {
+        Integer pendingChapter = progressBuffer.pendingChapter(userId, bookId);
+        return pendingChapter == null ? stored : new ReadingProgressDTO(pendingChapter, stored.isBookmarked());
+    }
+}
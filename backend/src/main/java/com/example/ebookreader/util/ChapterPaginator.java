@@ -0,0 +1,76 @@
+package com.example.ebookreader.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разметка текста главы на абзацы и страницы.
+ * Смещения считаются в кодовых точках Unicode — в тех же единицах, что length()
+ * и substring() PostgreSQL, поэтому страницу можно вырезать прямо в БД.
+ */
+public final class ChapterPaginator {
+
+    public static final int PAGE_CHARS = 2000;
+
+    private ChapterPaginator() {
+    }
+
+    // Начала абзацев: первый символ после перевода строки (пустые строки пропускаются)
+    public static int[] paragraphOffsets(String text) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] codePoints = text.codePoints().toArray();
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < codePoints.length; i++) {
+            boolean lineStart = i == 0 || codePoints[i - 1] == '\n';
+            if (lineStart && !isLineBreak(codePoints[i])) {
+                offsets.add(i);
+            }
+        }
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Начала страниц: страница не длиннее pageChars и по возможности заканчивается
+     * на границе абзаца (не раньше половины страницы), иначе — на пробеле.
+     */
+    public static int[] pageOffsets(String text, int[] paragraphOffsets, int pageChars) {
+        if (text == null || text.isEmpty()) {
+            return new int[0];
+        }
+        int[] codePoints = text.codePoints().toArray();
+        List<Integer> pages = new ArrayList<>();
+        int pageStart = 0;
+        int paragraph = 0;
+        pages.add(0);
+        while (codePoints.length - pageStart > pageChars) {
+            int limit = pageStart + pageChars;
+            int minEnd = pageStart + pageChars / 2;
+
+            int cut = -1;
+            while (paragraph < paragraphOffsets.length && paragraphOffsets[paragraph] <= limit) {
+                if (paragraphOffsets[paragraph] >= minEnd) {
+                    cut = paragraphOffsets[paragraph];
+                }
+                paragraph++;
+            }
+            if (cut < 0) {
+                cut = limit;
+                for (int i = limit; i > minEnd; i--) {
+                    if (Character.isWhitespace(codePoints[i - 1])) {
+                        cut = i;
+                        break;
+                    }
+                }
+            }
+            pages.add(cut);
+            pageStart = cut;
+        }
+        return pages.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean isLineBreak(int codePoint) {
+        return codePoint == '\n' || codePoint == '\r';
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ebookreader.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.ebookreader.exception.BadRequestException;
+
+/**
+ * Кодирование непрозрачных курсоров пагинации.
+ * Курсор — base64url от значений ключа сортировки, клиент передаёт его обратно как есть.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "\u001F";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String... parts) {
+        String joined = String.join(SEPARATOR, parts);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = joined.split(SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw new BadRequestException("Некорректный курсор");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+}
@@ -8,3 +8,34 @@ VALUES ('Преступление и наказание', 'Федор Досто
 
 INSERT INTO books (title, author, description, cover_url) 
 VALUES ('Мастер и Маргарита', 'Михаил Булгаков', 'Мистический роман', '/assets/covers/master.jpg');
+
+-- Поиск по каталогу: полнотекстовый индекс (russian) и триграммные индексы для ILIKE/similarity
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_books_fts ON books USING gin (to_tsvector('russian', coalesce(title, '') || ' ' || coalesce(author, '')));
+CREATE INDEX IF NOT EXISTS idx_books_title_trgm ON books USING gin (title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_books_author_trgm ON books USING gin (author gin_trgm_ops);
+
+-- Keyset-пагинация каталога по автору (сортировка coalesce(author, ''), id)
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books ((coalesce(author, '')), id);
+
+-- Текст глав без ограничения длины. EXTERNAL: TOAST хранит текст чанками без сжатия, и substring()
+-- читает чанки от начала значения до конца диапазона без распаковки всего текста. Пропустить
+-- начальные чанки он не может: в UTF-8 кириллица занимает 2 байта, и байтовое смещение символа
+-- неизвестно. Поэтому диапазон текста (ChapterTextStream) читается одним запросом
+ALTER TABLE chapters ALTER COLUMN content TYPE text;
+ALTER TABLE chapters ALTER COLUMN content SET STORAGE EXTERNAL;
+
+
+-- Keyset-пагинация оглавления (GraphQL chaptersConnection) и выборки глав книги по порядку
+CREATE INDEX IF NOT EXISTS idx_chapters_book_order ON chapters (book_id, chapter_order);
+
+-- Одна запись на пару пользователь–книга (upsert ON CONFLICT). Дубликаты, накопленные
+-- прежней схемой «прочитать, затем вставить», сначала сворачиваются до самой свежей строки
+DELETE FROM user_books a USING user_books b
+WHERE a.user_id = b.user_id AND a.book_id = b.book_id AND a.id < b.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_books_user_book ON user_books (user_id, book_id);
+
+-- Библиотека пользователя: keyset-пагинация по давности чтения. Строкам, созданным до
+-- появления last_read_at, время проставляется один раз, чтобы ключ сортировки не был NULL
+UPDATE user_books SET last_read_at = CURRENT_TIMESTAMP WHERE last_read_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_user_books_user_last_read ON user_books (user_id, last_read_at DESC, id DESC);
@@ -0,0 +1,104 @@
+package com.example.ebookreader.config;
+
+import com.example.ebookreader.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void testHashesAndUpgradesOnlyWeakerCost() {
+        encoder = new BoundedPasswordEncoder(5, 1, 4, Duration.ofSeconds(5));
+
+        String hash = encoder.encode("password123");
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("password123", hash));
+        assertFalse(encoder.matches("wrong", hash));
+
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password123")));
+        assertFalse(encoder.upgradeEncoding("plain"));
+    }
+
+    @Test
+    void testFullQueueIsRejectedImmediately() throws Exception {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        String slowHash = new BCryptPasswordEncoder(4).encode("x");
+
+        // Поток пула занят, единственное место в очереди тоже
+        BlockingSequence blocking = new BlockingSequence(release);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches(blocking, slowHash));
+        assertTrue(blocking.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("x", slowHash));
+        Thread.sleep(100);
+        assertFalse(queued.isDone());
+
+        long start = System.nanoTime();
+        assertThrows(ServiceUnavailableException.class, () -> encoder.encode("password123"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCalibrationStaysWithinBounds() {
+        encoder = new BoundedPasswordEncoder(4, 1, 1, Duration.ofSeconds(5));
+        assertEquals(BoundedPasswordEncoder.MIN_CALIBRATED_STRENGTH, BoundedPasswordEncoder.calibrate(Duration.ofMillis(1)));
+    }
+
+    // Пароль "x", toString() которого ждёт release — держит поток пула занятым
+    private static final class BlockingSequence implements CharSequence {
+
+        private final CountDownLatch release;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        BlockingSequence(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public int length() {
+            return 1;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return 'x';
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return "x".subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "x";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.ebookreader.config;
+
+import com.example.ebookreader.repository.UserRepository;
+import com.example.ebookreader.service.TokenVersionRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы аутентификации на один запрос: JwtFilter против прежней схемы
+ * (два фильтра с цепочками startsWith и шестью полными проверками подписи на защищённый
+ * запрос; обращения прежних фильтров к БД и вывод в консоль здесь не учитываются).
+ *
+ * Запуск: mvn test-compile, затем main() этого класса с тестовым classpath
+ * (например, из IDE). В mvn test не выполняется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String PUBLIC_PATH = "/api/books/7/chapters/3";
+    private static final String PROTECTED_PATH = "/api/user/books/7/progress";
+
+    private JwtUtil jwtUtil;
+    private PublicPaths publicPaths;
+    private JwtFilter filter;
+    private String authHeader;
+
+    @Setup
+    public void setUp() {
+        UserRepository users = Mockito.mock(UserRepository.class);
+        Mockito.when(users.findTokenVersionById(Mockito.anyLong())).thenReturn(Optional.of(0));
+        jwtUtil = new JwtUtil(10_000);
+        publicPaths = new PublicPaths();
+        filter = new JwtFilter(jwtUtil, new TokenVersionRegistry(users, 1000, Duration.ofSeconds(30)), publicPaths);
+        authHeader = "Bearer " + jwtUtil.generateToken(42L,
+                new User("reader", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))), 0);
+    }
+
+    @Benchmark
+    public Object publicPathLegacy() {
+        MockHttpServletRequest request = request(PUBLIC_PATH);
+        // Один вызов на итерацию: JwtFilter.shouldNotFilter прежней версии
+        return legacyIsPublic(request.getRequestURI());
+    }
+
+    @Benchmark
+    public Object publicPath() {
+        MockHttpServletRequest request = request(PUBLIC_PATH);
+        // Один вызов на итерацию: JwtFilter.shouldNotFilter
+        return publicPaths.matches(request);
+    }
+
+    @Benchmark
+    public Object protectedPathLegacy(Blackhole blackhole) {
+        MockHttpServletRequest request = request(PROTECTED_PATH);
+        String token = request.getHeader("Authorization").substring(7);
+        // JwtFilter: extractUserId + isTokenValid (extractUserId, extractExpiration)
+        blackhole.consume(legacyIsPublic(request.getRequestURI()));
+        blackhole.consume(jwtUtil.parse(token));
+        blackhole.consume(jwtUtil.parse(token));
+        blackhole.consume(jwtUtil.parse(token));
+        // JwtAuthenticationFilter: extractUsername + isTokenValid + extractAuthorities
+        blackhole.consume(legacyIsPublic(request.getRequestURI()));
+        blackhole.consume(jwtUtil.parse(token));
+        blackhole.consume(jwtUtil.parse(token));
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public Object protectedPath() throws Exception {
+        return filter(request(PROTECTED_PATH));
+    }
+
+    private Object filter(MockHttpServletRequest request) throws Exception {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", path);
+        request.addHeader("Authorization", authHeader);
+        return request;
+    }
+
+    private static boolean legacyIsPublic(String path) {
+        return path.startsWith("/api/auth/") ||
+               path.startsWith("/api/books") ||
+               path.startsWith("/api/genres") ||
+               path.startsWith("/api/test/") ||
+               path.startsWith("/covers/") ||
+               path.startsWith("/assets/") ||
+               path.startsWith("/graphql") ||
+               path.startsWith("/graphiql");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(JwtFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
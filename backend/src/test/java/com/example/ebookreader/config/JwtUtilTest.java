@@ -0,0 +1,93 @@
+package com.example.ebookreader.config;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private final UserDetails reader = new User("reader", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @Test
+    void testTokenIsVerifiedOnceAndServedFromCache() {
+        JwtUtil jwtUtil = new JwtUtil(100);
+        String token = jwtUtil.generateToken(42L, reader, 3);
+
+        VerifiedToken first = jwtUtil.verify(token);
+        assertEquals(42L, first.getUserId());
+        assertEquals("reader", first.getUsername());
+        assertEquals(List.of("ROLE_USER"), first.getAuthorities());
+        assertEquals(3, first.getTokenVersion());
+
+        // Повторная проверка не разбирает токен заново
+        assertSame(first, jwtUtil.verify(token));
+        assertEquals("reader", jwtUtil.extractUsername(token));
+        assertTrue(jwtUtil.isTokenValid(token, 42L));
+        assertFalse(jwtUtil.isTokenValid(token, 7L));
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil(100);
+        String token = jwtUtil.generateToken(42L, reader, 3);
+        // Меняем первый символ подписи: в последнем символе base64url часть битов не значима,
+        // и его замена могла не менять подпись
+        int signature = token.lastIndexOf('.') + 1;
+        String tampered = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A')
+                + token.substring(signature + 1);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertTrue(jwtUtil.tryVerify(tampered).isEmpty());
+        assertTrue(jwtUtil.tryVerify("not-a-jwt").isEmpty());
+    }
+
+    @Test
+    void testExpiredTokenIsRejectedEvenWhenCached() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtUtil jwtUtil = new JwtUtil(100, clock);
+        String token = jwtUtil.generateToken(42L, reader, 3);
+        assertTrue(jwtUtil.tryVerify(token).isPresent());
+
+        clock.advance(Duration.ofHours(11));
+
+        assertTrue(jwtUtil.tryVerify(token).isEmpty());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.ebookreader.config;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.WebSocketGraphQlRequest;
+import org.springframework.graphql.server.WebSocketSessionInfo;
+import org.springframework.graphql.support.DefaultExecutionGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PersistedQueryInterceptorTest {
+
+    private static final String QUERY_A = "{ allBooks(first: 1) { id } }";
+    private static final String QUERY_B = "{ allBooks(first: 2) { title } }";
+
+    private final PersistedQueryRegistry registry = new PersistedQueryRegistry(false, 100);
+    private final PersistedQueryInterceptor interceptor = new PersistedQueryInterceptor(registry);
+
+    @Test
+    void testHashMismatchOverWebSocketIsRejectedBeforeExecution() {
+        AtomicReference<WebGraphQlRequest> executed = new AtomicReference<>();
+
+        WebGraphQlResponse response = intercept(webSocketRequest(QUERY_A, PersistedQueryRegistry.sha256Hex(QUERY_B)), executed);
+
+        assertNull(executed.get());
+        assertEquals("PERSISTED_QUERY_HASH_MISMATCH", response.getErrors().get(0).getExtensions().get("code"));
+        assertTrue(registry.find(PersistedQueryRegistry.sha256Hex(QUERY_B)).isEmpty());
+    }
+
+    @Test
+    void testHashOnlyRequestOverWebSocketRunsStoredQuery() {
+        String hash = PersistedQueryRegistry.sha256Hex(QUERY_B);
+        AtomicReference<WebGraphQlRequest> executed = new AtomicReference<>();
+
+        WebGraphQlResponse unknown = intercept(webSocketRequest(null, hash), executed);
+        assertEquals("PERSISTED_QUERY_NOT_FOUND", unknown.getErrors().get(0).getExtensions().get("code"));
+
+        intercept(webSocketRequest(QUERY_B, hash), executed);
+        executed.set(null);
+        intercept(webSocketRequest(null, hash), executed);
+        assertEquals(QUERY_B, executed.get().toExecutionInput().getQuery());
+    }
+
+    @Test
+    void testDocumentCacheIsKeyedByQueryTextNotClientHash() {
+        CachingDocumentProvider provider = new CachingDocumentProvider(10);
+        AtomicInteger parses = new AtomicInteger();
+        Map<String, Object> extensions = Map.of("persistedQuery", Map.of("sha256Hash", PersistedQueryRegistry.sha256Hex(QUERY_B)));
+
+        for (String query : List.of(QUERY_A, QUERY_B)) {
+            ExecutionInput input = ExecutionInput.newExecutionInput(query).extensions(extensions).build();
+            provider.getDocumentAsync(input, in -> {
+                parses.incrementAndGet();
+                return new PreparsedDocumentEntry(List.of());
+            });
+        }
+
+        // Документ A, присланный под хэшем B, не выдаётся за документ B
+        assertEquals(2, parses.get());
+        assertEquals(2, provider.size());
+    }
+
+    private WebGraphQlResponse intercept(WebGraphQlRequest request, AtomicReference<WebGraphQlRequest> executed) {
+        return interceptor.intercept(request, next -> {
+            executed.set(next);
+            return Mono.just(new WebGraphQlResponse(new DefaultExecutionGraphQlResponse(
+                    next.toExecutionInput(), ExecutionResultImpl.newExecutionResult().build())));
+        }).block();
+    }
+
+    private static WebSocketGraphQlRequest webSocketRequest(String query, String hash) {
+        Map<String, Object> body = new HashMap<>();
+        // Как и Spring GraphQL для HTTP, вместо отсутствующего текста передаём маркер graphql-java
+        body.put("query", query != null ? query : "PersistedQueryMarker");
+        body.put("extensions", Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)));
+        return new WebSocketGraphQlRequest(URI.create("ws://localhost/graphql"), new HttpHeaders(),
+                new LinkedMultiValueMap<>(), new InetSocketAddress("127.0.0.1", 50000), Map.of(), body, "1", Locale.ROOT, mock(WebSocketSessionInfo.class));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ebookreader.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathsTest {
+
+    private final PublicPaths publicPaths = new PublicPaths();
+
+    @Test
+    void testPublicAndProtectedRoutes() {
+        assertTrue(publicPaths.isPublic("/api/books"));
+        assertTrue(publicPaths.isPublic("/api/books/7/chapters/1"));
+        assertTrue(publicPaths.isPublic("/api/admin/covers/a.jpg"));
+        assertTrue(publicPaths.isPublic("/graphql"));
+
+        assertFalse(publicPaths.isPublic("/api/bookshelf"));
+        assertFalse(publicPaths.isPublic("/api/user/books/7/progress"));
+        assertFalse(publicPaths.isPublic("/api/admin/books"));
+        assertFalse(publicPaths.isPublic("/api/reader/7"));
+    }
+
+    @Test
+    void testDecisionIsMadeOncePerRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/1");
+        assertTrue(publicPaths.matches(request));
+
+        // Повторные проверки (SecurityConfig после JwtFilter) берут результат из атрибута
+        request.setRequestURI("/api/user/profile");
+        assertTrue(publicPaths.matches(request));
+    }
+}
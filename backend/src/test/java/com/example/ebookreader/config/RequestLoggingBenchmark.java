@@ -0,0 +1,181 @@
+package com.example.ebookreader.config;
+
+import com.example.ebookreader.repository.UserRepository;
+import com.example.ebookreader.service.TokenVersionRegistry;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import jakarta.servlet.http.HttpServlet;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность защищённого запроса при параллельной нагрузке:
+ * JwtFilter + AccessLogFilter с прежним выводом в System.out (17 строк на запрос,
+ * как в старых JwtFilter и CustomUserDetailsService) против SLF4J — с выключенным
+ * журналом запросов и с включённым через AsyncAppender. Вывод идёт в /dev/null,
+ * так что меряется цена самого логирования, а не терминала.
+ *
+ * Запуск: mvn test-compile, затем main() этого класса с тестовым classpath.
+ * В mvn test не выполняется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final String PATH = "/api/user/books/7/progress";
+
+    private JwtFilter jwtFilter;
+    private AccessLogFilter accessLogFilter;
+    private JwtUtil jwtUtil;
+    private String authHeader;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp(BenchmarkParams params) throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new FileOutputStream("/dev/null"), true));
+        configureLogback(params.getBenchmark().endsWith("slf4jAccessLogAsync") ? Level.INFO : Level.OFF);
+
+        UserRepository users = Mockito.mock(UserRepository.class);
+        Mockito.when(users.findTokenVersionById(Mockito.anyLong())).thenReturn(Optional.of(0));
+        jwtUtil = new JwtUtil(10_000);
+        jwtFilter = new JwtFilter(jwtUtil, new TokenVersionRegistry(users, 1000, Duration.ofSeconds(30)), new PublicPaths());
+        accessLogFilter = new AccessLogFilter();
+        authHeader = "Bearer " + jwtUtil.generateToken(42L,
+                new User("reader", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))), 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public Object stdoutLegacy() throws Exception {
+        MockHttpServletRequest request = request();
+        legacyPrintln(request);
+        return handle(request);
+    }
+
+    @Benchmark
+    public Object slf4jAccessLogOff() throws Exception {
+        return handle(request());
+    }
+
+    @Benchmark
+    public Object slf4jAccessLogAsync() throws Exception {
+        return handle(request());
+    }
+
+    private Object handle(MockHttpServletRequest request) throws Exception {
+        try {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            accessLogFilter.doFilter(request, response,
+                    new MockFilterChain(new HttpServlet() {}, jwtFilter));
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Строки, которые прежде печатались на каждый защищённый запрос
+    private void legacyPrintln(MockHttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        String token = authHeader.substring(7);
+        Long userId = jwtUtil.verify(token).getUserId();
+        System.out.println("\n═══════════════════════════════════════");
+        System.out.println("🔹 JWT FILTER - REQUEST");
+        System.out.println("═══════════════════════════════════════");
+        System.out.println("URI: " + request.getRequestURI());
+        System.out.println("Method: " + request.getMethod());
+        System.out.println("Authorization header: " + authHeader.substring(0, Math.min(30, authHeader.length())) + "...");
+        System.out.println("Token extracted (first 20 chars): " + token.substring(0, Math.min(20, token.length())) + "...");
+        System.out.println("User ID from token: " + userId);
+        System.out.println("🔍 Loading user details for ID: " + userId);
+        System.out.println("✅ Loading user by ID: " + userId);
+        System.out.println("   User nickname: " + "reader");
+        System.out.println("   User role: " + "USER");
+        System.out.println("✅ User details loaded");
+        System.out.println("🔍 Validating token...");
+        System.out.println("✅ Token is VALID");
+        System.out.println("✅ Authentication set in SecurityContext");
+        System.out.println("═══════════════════════════════════════\n");
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", PATH);
+        request.addHeader("Authorization", authHeader);
+        return request;
+    }
+
+    // То же, что logback-spring.xml, но без Spring: AsyncAppender поверх вывода в /dev/null
+    private static void configureLogback(Level accessLevel) throws Exception {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(new FileOutputStream("/dev/null"));
+        sink.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(sink);
+        async.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(async);
+        context.getLogger("access").setLevel(accessLevel);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(RequestLoggingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
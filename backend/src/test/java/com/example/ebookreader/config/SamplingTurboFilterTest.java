@@ -0,0 +1,73 @@
+package com.example.ebookreader.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.addSample("access=3");
+        filter.addSample("com.example=2");
+        filter.addSample("com.example.ebookreader.config=1");
+        filter.start();
+        context.addTurboFilter(filter);
+
+        events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(events);
+    }
+
+    @Test
+    void testEveryNthEventOfCategoryIsKept() {
+        Logger access = context.getLogger("access");
+        for (int i = 0; i < 9; i++) {
+            if (access.isInfoEnabled()) {
+                access.info("request {}", i);
+            }
+        }
+        // Проверки уровня не сдвигают счётчик; WARN не прореживается
+        access.warn("slow");
+        access.warn("slow");
+
+        assertEquals(5, events.list.size());
+        assertEquals("request 0", events.list.get(0).getFormattedMessage());
+        assertEquals("request 3", events.list.get(1).getFormattedMessage());
+        assertEquals("request 6", events.list.get(2).getFormattedMessage());
+    }
+
+    @Test
+    void testLongestCategoryWinsAndDisabledLevelsAreNotCounted() {
+        Logger service = context.getLogger("com.example.ebookreader.service.Foo");
+        Logger other = context.getLogger("com.example.other.Bar");
+        Logger config = context.getLogger("com.example.ebookreader.config.JwtUtil");
+        for (int i = 0; i < 4; i++) {
+            service.debug("disabled");
+            service.info("service {}", i);
+            other.info("other {}", i);
+            config.info("config {}", i);
+        }
+
+        // com.example=2 — счётчик общий для service и other; config — без прореживания
+        long kept = events.list.stream().filter(e -> !e.getLoggerName().endsWith("JwtUtil")).count();
+        assertEquals(4, kept);
+        assertEquals(4, events.list.stream().filter(e -> e.getLoggerName().endsWith("JwtUtil")).count());
+    }
+}
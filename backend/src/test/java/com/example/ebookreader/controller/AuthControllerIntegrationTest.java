@@ -3,6 +3,7 @@ package com.example.ebookreader.controller;
 import com.example.ebookreader.dto.LoginRequest;
 import com.example.ebookreader.model.User;
 import com.example.ebookreader.repository.UserRepository;
+import com.example.ebookreader.service.AdminService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,10 +11,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,6 +39,9 @@ public class AuthControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AdminService adminService;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -68,4 +76,54 @@ public class AuthControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized());
     }
+
+    @Test
+    void testLoginRehashesOnlyWeakerPasswordHash() throws Exception {
+        // В тестах strength = 5: хэш со стоимостью 4 пересчитан вверх
+        assertEquals("$2a$05$", loginWithStoredHash(new BCryptPasswordEncoder(4).encode("password123")).substring(0, 7));
+
+        // Более стойкий хэш при входе не пересчитывается вниз
+        String stronger = new BCryptPasswordEncoder(6).encode("password123");
+        assertEquals(stronger, loginWithStoredHash(stronger));
+    }
+
+    private String loginWithStoredHash(String hash) throws Exception {
+        User user = userRepository.findByNickname("testuser").orElseThrow();
+        user.setPassword(hash);
+        userRepository.save(user);
+
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findByNickname("testuser").orElseThrow().getPassword();
+        assertTrue(passwordEncoder.matches("password123", stored));
+        return stored;
+    }
+
+    @Test
+    void testRoleChangeRevokesIssuedTokens() throws Exception {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password123");
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andReturn().getResponse().getContentAsString();
+        String token = "Bearer " + objectMapper.readTree(body).get("token").asText();
+
+        mockMvc.perform(get("/api/user/profile").header("Authorization", token))
+                .andExpect(status().isOk());
+
+        adminService.updateUserRole(userRepository.findByNickname("testuser").orElseThrow().getId(), "ADMIN");
+
+        mockMvc.perform(get("/api/user/profile").header("Authorization", token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/auth/refresh").header("Authorization", token))
+                .andExpect(status().isUnauthorized());
+    }
 }
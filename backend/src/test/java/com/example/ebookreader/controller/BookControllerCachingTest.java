@@ -0,0 +1,98 @@
+package com.example.ebookreader.controller;
+
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookControllerCachingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    private String chapterUrl;
+    private String version;
+
+    @BeforeEach
+    void setUp() {
+        // Название книги уникально, а данные каталога общие для тестов одного контекста
+        Book book = bookRepository.findAll().stream()
+                .filter(b -> "Кэширование".equals(b.getTitle()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Book created = new Book();
+                    created.setTitle("Кэширование");
+                    created.setAuthor("Автор");
+                    return bookRepository.save(created);
+                });
+        Chapter chapter = chapterRepository.findByBookIdAndChapterOrder(book.getId(), 1)
+                .orElseGet(() -> {
+                    Chapter created = new Chapter();
+                    created.setBook(book);
+                    created.setChapterOrder(1);
+                    created.setTitle("Первая");
+                    created.setContent("Текст первой главы");
+                    return chapterRepository.save(created);
+                });
+        chapterUrl = "/api/books/" + book.getId() + "/chapters/1";
+        version = chapter.getContentHash();
+    }
+
+    @Test
+    void testUnchangedChapterIsRevalidatedWith304() throws Exception {
+        String etag = mockMvc.perform(get(chapterUrl))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "\""))
+                .andExpect(jsonPath("$.content").value("Текст первой главы"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(chapterUrl).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        // У gzip-представления свой ETag: прежний ETag к нему не подходит
+        mockMvc.perform(get(chapterUrl).header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void testVersionedUrlIsImmutableAndStaleVersionRedirectsToCurrent() throws Exception {
+        mockMvc.perform(get(chapterUrl + "/v/" + version))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")))
+                .andExpect(jsonPath("$.version").value(version));
+
+        mockMvc.perform(get(chapterUrl + "/v/outdated"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, chapterUrl + "/v/" + version))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.ebookreader.controller;
+
+import com.example.ebookreader.config.PersistedQueryRegistry;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookGraphQLControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        chapterRepository.deleteAll();
+        bookRepository.deleteAll();
+        for (int i = 1; i <= 5; i++) {
+            Book book = new Book();
+            book.setTitle("GraphQL книга " + i);
+            book.setAuthor("Автор " + i);
+            book = bookRepository.save(book);
+            for (int order = 1; order <= 3; order++) {
+                Chapter chapter = new Chapter();
+                chapter.setBook(book);
+                chapter.setChapterOrder(order);
+                chapter.setTitle("Глава " + order);
+                chapter.setContent("Текст " + order);
+                chapterRepository.save(chapter);
+            }
+        }
+    }
+
+    @Test
+    void testChaptersOfAllBooksAreLoadedInOneQuery() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(post("/graphql")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"query\": \"{ allBooks(first: 10) { id chapters { chapterOrder title } } }\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.data.allBooks.length()").value(5))
+                    .andExpect(jsonPath("$.data.allBooks[*].chapters[*].title").value(hasSize(15)));
+
+            // Страница книг + один IN-запрос за главами, независимо от числа книг
+            assertEquals(2, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    void testContentIsLoadedOnlyWhenSelected() throws Exception {
+        Long bookId = bookRepository.findAll().get(0).getId();
+
+        graphql("{ chaptersByBookId(bookId: " + bookId + ") { chapterOrder title } }")
+                .andExpect(jsonPath("$.data.chaptersByBookId[0].title").value("Глава 1"))
+                .andExpect(jsonPath("$.data.chaptersByBookId[0].content").doesNotExist());
+        graphql("{ bookById(id: " + bookId + ") { chapters { chapterOrder content } } }")
+                .andExpect(jsonPath("$.data.bookById.chapters[2].content").value("Текст 3"));
+    }
+
+    @Test
+    void testQueryPullingAllChapterTextIsRejected() throws Exception {
+        graphql("{ allBooks(first: 50) { chapters { content } } }")
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("complexity")))
+                .andExpect(jsonPath("$.data").doesNotExist());
+    }
+
+    @Test
+    void testConnectionsArePagedByCursor() throws Exception {
+        assertEquals(List.of("GraphQL книга 1", "GraphQL книга 2", "GraphQL книга 3", "GraphQL книга 4", "GraphQL книга 5"),
+                allTitles("ID"));
+
+        Long bookId = bookRepository.findAll().get(0).getId();
+        JsonNode first = data("{ chaptersConnection(bookId: " + bookId + ", first: 2) { edges { node { chapterOrder } } pageInfo { hasNextPage endCursor } } }")
+                .get("chaptersConnection");
+        assertTrue(first.get("pageInfo").get("hasNextPage").asBoolean());
+        JsonNode rest = data("{ chaptersConnection(bookId: " + bookId + ", first: 2, after: \"" + first.get("pageInfo").get("endCursor").asText()
+                + "\") { edges { node { chapterOrder content } } pageInfo { hasNextPage } } }").get("chaptersConnection");
+        assertEquals(1, rest.get("edges").size());
+        assertEquals("Текст 3", rest.get("edges").get(0).get("node").get("content").asText());
+        assertFalse(rest.get("pageInfo").get("hasNextPage").asBoolean());
+    }
+
+    @Test
+    void testTitleAndAuthorCursorsContinueAfterLastRow() throws Exception {
+        // Одинаковые авторы разводятся по id, книга без автора сортируется как пустая строка
+        List<Book> books = bookRepository.findAll().stream().sorted((a, b) -> a.getTitle().compareTo(b.getTitle())).toList();
+        books.get(1).setAuthor("Автор 1");
+        books.get(2).setAuthor("Автор 1");
+        books.get(4).setAuthor(null);
+        bookRepository.saveAll(books);
+
+        assertEquals(List.of("GraphQL книга 5", "GraphQL книга 1", "GraphQL книга 2", "GraphQL книга 3", "GraphQL книга 4"),
+                allTitles("AUTHOR"));
+        assertEquals(List.of("GraphQL книга 1", "GraphQL книга 2", "GraphQL книга 3", "GraphQL книга 4", "GraphQL книга 5"),
+                allTitles("TITLE"));
+    }
+
+    @Test
+    void testAllBooksFollowsNextCursorInExtensions() throws Exception {
+        String body = graphql("{ allBooks(first: 3) { title } }").andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode firstPage = objectMapper.readTree(body);
+        assertEquals(3, firstPage.get("data").get("allBooks").size());
+        String cursor = firstPage.get("extensions").get("nextCursor").asText();
+
+        body = graphql("{ allBooks(first: 3, after: \"" + cursor + "\") { title } }").andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        JsonNode secondPage = objectMapper.readTree(body);
+        assertEquals(2, secondPage.get("data").get("allBooks").size());
+        assertTrue(secondPage.get("extensions") == null || !secondPage.get("extensions").has("nextCursor"));
+    }
+
+    @Test
+    void testPersistedQueryIsRegisteredAndServedByHash() throws Exception {
+        String query = "{ allBooks(first: 2) { title } }";
+        Map<String, Object> extensions = Map.of("persistedQuery",
+                Map.of("version", 1, "sha256Hash", PersistedQueryRegistry.sha256Hex(query)));
+
+        // Хэш ещё неизвестен — клиент должен повторить запрос с текстом
+        persisted(Map.of("extensions", extensions))
+                .andExpect(jsonPath("$.errors[0].extensions.code").value("PERSISTED_QUERY_NOT_FOUND"));
+        persisted(Map.of("query", query, "extensions", extensions))
+                .andExpect(jsonPath("$.data.allBooks.length()").value(2));
+        persisted(Map.of("extensions", extensions))
+                .andExpect(jsonPath("$.data.allBooks[0].title").value(containsString("GraphQL книга")));
+
+        persisted(Map.of("query", "{ allBooks(first: 1) { id } }", "extensions", extensions))
+                .andExpect(jsonPath("$.errors[0].extensions.code").value("PERSISTED_QUERY_HASH_MISMATCH"));
+    }
+
+    private ResultActions persisted(Map<String, Object> body) throws Exception {
+        return mockMvc.perform(post("/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk());
+    }
+
+    private JsonNode data(String query) throws Exception {
+        String body = graphql(query).andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        return objectMapper.readTree(body).get("data");
+    }
+
+    // Проходит booksConnection страницами по два, следуя endCursor
+    private List<String> allTitles(String orderBy) throws Exception {
+        String page = "{ booksConnection(first: 2, orderBy: " + orderBy + "%s) { edges { cursor node { title } } pageInfo { hasNextPage endCursor } } }";
+        List<String> titles = new ArrayList<>();
+        String after = null;
+        boolean hasNext = true;
+        while (hasNext) {
+            JsonNode connection = data(String.format(page, after == null ? "" : ", after: \"" + after + "\""))
+                    .get("booksConnection");
+            connection.get("edges").forEach(edge -> titles.add(edge.get("node").get("title").asText()));
+            hasNext = connection.get("pageInfo").get("hasNextPage").asBoolean();
+            after = connection.get("pageInfo").get("endCursor").asText();
+        }
+        return titles;
+    }
+
+    private ResultActions graphql(String query) throws Exception {
+        return mockMvc.perform(post("/graphql")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("query", query))))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.ebookreader.controller;
+
+import com.example.ebookreader.config.JwtUtil;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.model.User;
+import com.example.ebookreader.model.UserBook;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterRepository;
+import com.example.ebookreader.repository.UserBookRepository;
+import com.example.ebookreader.repository.UserBookRepositoryCustom.ProgressUpdate;
+import com.example.ebookreader.repository.UserRepository;
+import com.example.ebookreader.service.ProgressWriteBuffer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserBookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserBookRepository userBookRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProgressWriteBuffer progressBuffer;
+
+    private String token;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        userBookRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(new User("reader", "reader@example.com", "hash", "USER"));
+        token = "Bearer " + jwtUtil.generateToken(user.getId(),
+                new org.springframework.security.core.userdetails.User("reader", "hash",
+                        List.of(new SimpleGrantedAuthority("ROLE_USER"))),
+                user.getTokenVersion());
+
+        // Название книги уникально, а данные каталога общие для тестов одного контекста
+        bookId = bookRepository.findAll().stream()
+                .filter(b -> "Прогресс".equals(b.getTitle()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Book book = new Book();
+                    book.setTitle("Прогресс");
+                    book.setAuthor("Автор");
+                    return bookRepository.save(book);
+                })
+                .getId();
+    }
+
+    // Другие тесты контекста очищают каталог и не должны упираться во внешние ключи user_books
+    @AfterEach
+    void tearDown() {
+        progressBuffer.flush();
+        userBookRepository.deleteAll();
+    }
+
+    @Test
+    void testProgressUpdatesAreCoalescedAndWrittenInOneBatch() throws Exception {
+        mockMvc.perform(put("/api/user/books/" + bookId + "/progress").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"chapter\": 2}"))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            for (int chapter = 3; chapter <= 5; chapter++) {
+                mockMvc.perform(put("/api/user/books/" + bookId + "/progress").header("Authorization", token)
+                                .contentType(MediaType.APPLICATION_JSON).content("{\"chapter\": " + chapter + "}"))
+                        .andExpect(status().isOk());
+            }
+            // Книга уже проверена, запись отложена — к БД ни одного запроса
+            assertEquals(0, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Ещё не записанное значение уже видно при чтении
+        mockMvc.perform(get("/api/user/books/" + bookId + "/progress").header("Authorization", token))
+                .andExpect(jsonPath("$.currentChapter").value(5));
+
+        assertEquals(1, progressBuffer.flush());
+        assertEquals(0, progressBuffer.pendingCount());
+        List<UserBook> rows = userBookRepository.findAll();
+        assertEquals(1, rows.size());
+        assertEquals(5, rows.get(0).getCurrentChapter());
+        assertFalse(rows.get(0).isBookmarked());
+
+        // Повторный сброс обновляет существующую строку, а не вставляет новую
+        mockMvc.perform(put("/api/user/books/" + bookId + "/progress").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"chapter\": 7}"))
+                .andExpect(status().isOk());
+        progressBuffer.flush();
+        assertEquals(7, userBookRepository.findAll().get(0).getCurrentChapter());
+    }
+
+    @Test
+    void testParallelUpsertsOfOnePairLeaveOneRow() throws Exception {
+        Long userId = userRepository.findByNickname("reader").orElseThrow().getId();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i <= 200; i++) {
+                int chapter = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (chapter % 4 == 0) {
+                        userBookRepository.upsertBookmark(userId, bookId);
+                    } else {
+                        userBookRepository.upsertProgress(new ProgressUpdate(userId, bookId, chapter, Instant.now()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<UserBook> rows = userBookRepository.findAll();
+        assertEquals(1, rows.size());
+        assertTrue(rows.get(0).isBookmarked());
+        // Прежняя схема здесь падала: findByUserIdAndBookId требует единственную строку
+        assertTrue(userBookRepository.findByUserIdAndBookId(userId, bookId).isPresent());
+    }
+
+    @Test
+    void testRepeatedBookmarkKeepsOneRowAndMissingBookIsNotFound() throws Exception {
+        mockMvc.perform(post("/api/user/books/" + bookId + "/bookmark").header("Authorization", token))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/user/books/" + bookId + "/bookmark").header("Authorization", token))
+                .andExpect(status().isOk());
+        assertEquals(1, userBookRepository.count());
+
+        mockMvc.perform(post("/api/user/books/" + (bookId + 1000) + "/bookmark").header("Authorization", token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testLibraryIsPagedByRecencyWithChapterInfoFromOneQuery() throws Exception {
+        Long userId = userRepository.findByNickname("reader").orElseThrow().getId();
+        Long oldest = libraryBook("Библиотека 1", "Пролог", "Встреча", "Финал");
+        Long middle = libraryBook("Библиотека 2", "Единственная");
+        Long newest = libraryBook("Библиотека 3");
+        Instant now = Instant.now();
+        userBookRepository.upsertProgress(List.of(
+                new ProgressUpdate(userId, oldest, 2, now.minusSeconds(300)),
+                new ProgressUpdate(userId, middle, 1, now.minusSeconds(200)),
+                new ProgressUpdate(userId, newest, 1, now.minusSeconds(100))));
+        userBookRepository.upsertBookmark(userId, middle);
+
+        String cursor = mockMvc.perform(get("/api/user/books/library?limit=2").header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(newest))
+                .andExpect(jsonPath("$[0].totalChapters").value(0))
+                .andExpect(jsonPath("$[1].id").value(middle))
+                .andExpect(jsonPath("$[1].isBookmarked").value(true))
+                .andExpect(jsonPath("$[1].nextChapterTitle").doesNotExist())
+                .andReturn().getResponse().getHeader(BookController.NEXT_CURSOR_HEADER);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(get("/api/user/books/library?limit=2&cursor=" + cursor).header("Authorization", token))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(BookController.NEXT_CURSOR_HEADER))
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(oldest))
+                    .andExpect(jsonPath("$[0].currentChapter").value(2))
+                    .andExpect(jsonPath("$[0].totalChapters").value(3))
+                    .andExpect(jsonPath("$[0].nextChapterTitle").value("Финал"));
+            // Книга, прогресс и оглавление — одним запросом, без выборок на каждую строку
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Отложенный прогресс сразу поднимает книгу наверх, не дожидаясь записи в БД
+        mockMvc.perform(put("/api/user/books/" + oldest + "/progress").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"chapter\": 3}"))
+                .andExpect(status().isOk());
+        cursor = mockMvc.perform(get("/api/user/books/library?limit=2").header("Authorization", token))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(oldest))
+                .andExpect(jsonPath("$[0].currentChapter").value(3))
+                .andExpect(jsonPath("$[0].nextChapterTitle").doesNotExist())
+                .andExpect(jsonPath("$[1].id").value(newest))
+                .andReturn().getResponse().getHeader(BookController.NEXT_CURSOR_HEADER);
+        mockMvc.perform(get("/api/user/books/library?limit=2&cursor=" + cursor).header("Authorization", token))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(middle));
+        assertEquals(3, progressBuffer.pendingChapter(userId, oldest));
+
+        mockMvc.perform(get("/api/user/books/bookmarks").header("Authorization", token))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(middle))
+                .andExpect(jsonPath("$[0].title").value("Библиотека 2"));
+
+        mockMvc.perform(get("/api/user/books/library?cursor=bad").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long libraryBook(String title, String... chapterTitles) {
+        return bookRepository.findAll().stream()
+                .filter(b -> title.equals(b.getTitle()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Book book = new Book();
+                    book.setTitle(title);
+                    book = bookRepository.save(book);
+                    for (int i = 0; i < chapterTitles.length; i++) {
+                        Chapter chapter = new Chapter();
+                        chapter.setBook(book);
+                        chapter.setChapterOrder(i + 1);
+                        chapter.setTitle(chapterTitles[i]);
+                        chapter.setContent("Текст");
+                        chapterRepository.save(chapter);
+                    }
+                    return book;
+                })
+                .getId();
+    }
+
+    @Test
+    void testProgressForMissingBookIsNotFound() throws Exception {
+        mockMvc.perform(put("/api/user/books/" + (bookId + 1000) + "/progress").header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"chapter\": 2}"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.verify;
@@ -53,7 +54,7 @@ class AuthControllerTest {
 
         when(userRepository.findByNickname("testuser")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("password123", "hashed_password")).thenReturn(true);
-        when(jwtUtil.generateToken(any(), any())).thenReturn("mocked_token");
+        when(jwtUtil.generateToken(any(), any(), anyInt())).thenReturn("mocked_token");
 
         // When
         ResponseEntity<?> response = authController.login(request);
@@ -0,0 +1,68 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.CursorPage;
+import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookCatalogPagerTest {
+
+    private BookRepository bookRepository;
+    private BookCatalogPager pager;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        pager = new BookCatalogPager(bookRepository);
+    }
+
+    @Test
+    void testFirstPageReturnsCursorWhenMoreRowsExist() {
+        when(bookRepository.findFirstByTitle(Limit.of(3)))
+                .thenReturn(List.of(book(5L, "А"), book(2L, "Б"), book(9L, "В")));
+
+        CursorPage<Book> page = pager.page(BookSort.TITLE, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.hasNext());
+
+        when(bookRepository.findAfterTitle("Б", Limit.of(3))).thenReturn(List.of(book(9L, "В")));
+        CursorPage<Book> next = pager.page(BookSort.TITLE, page.getNextCursor(), 2);
+
+        assertEquals(1, next.getItems().size());
+        assertFalse(next.hasNext());
+    }
+
+    @Test
+    void testPageSizeIsCapped() {
+        when(bookRepository.findFirstById(Limit.of(BookCatalogPager.MAX_PAGE_SIZE + 1))).thenReturn(List.of());
+
+        pager.page(BookSort.ID, null, 10_000);
+
+        verify(bookRepository).findFirstById(Limit.of(BookCatalogPager.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void testCursorFromAnotherSortIsRejected() {
+        String cursor = BookCatalogPager.cursorAfter(BookSort.NEWEST, book(7L, "А"));
+
+        assertThrows(BadRequestException.class, () -> pager.page(BookSort.TITLE, cursor, 10));
+        assertThrows(BadRequestException.class, () -> pager.page(BookSort.TITLE, "not-a-cursor", 10));
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.ebookreader.service;
 
+import com.example.ebookreader.dto.BookSort;
+import com.example.ebookreader.dto.CursorPage;
 import com.example.ebookreader.model.Book;
+import com.example.ebookreader.exception.BadRequestException;
+import com.example.ebookreader.exception.ConflictException;
 import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterLayout;
+import com.example.ebookreader.repository.ChapterRepository;
+import com.example.ebookreader.repository.ChapterTextInfo;
 import com.example.ebookreader.service.impl.BookServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +31,12 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookCatalogPager catalogPager;
+
+    @Mock
+    private ChapterRepository chapterRepository;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -39,13 +55,15 @@ class BookServiceTest {
         book2.setId(2L);
         book2.setTitle("Book 2");
 
-        when(bookRepository.findAll()).thenReturn(Arrays.asList(book1, book2));
+        when(catalogPager.page(BookSort.TITLE, null, null))
+                .thenReturn(new CursorPage<>(Arrays.asList(book1, book2), null));
 
-        List<Book> books = bookService.getAllBooks();
+        CursorPage<Book> page = bookService.getAllBooks(BookSort.TITLE, null, null);
 
-        assertEquals(2, books.size());
-        assertEquals("Book 1", books.get(0).getTitle());
-        verify(bookRepository, times(1)).findAll();
+        assertEquals(2, page.getItems().size());
+        assertEquals("Book 1", page.getItems().get(0).getTitle());
+        assertFalse(page.hasNext());
+        verify(bookRepository, never()).findAll();
     }
 
     @Test
@@ -61,4 +79,78 @@ class BookServiceTest {
         assertNotNull(foundBook);
         assertEquals("Test Book", foundBook.getTitle());
     }
+
+    @Test
+    void testSearchBooksDelegatesToRankedQuery() {
+        Book book = new Book();
+        book.setId(1L);
+        book.setTitle("Война и мир");
+
+        when(bookRepository.searchRanked("100%_мир", "%100\\%\\_мир%", PageRequest.of(0, 100)))
+                .thenReturn(List.of(book));
+
+        List<Book> books = bookService.searchBooks("  100%_мир ", 0, 500);
+
+        assertEquals(1, books.size());
+        verify(bookRepository, never()).findAll();
+    }
+
+    @Test
+    void testSearchBooksWithEmptyQueryReturnsPage() {
+        when(bookRepository.findAllBy(PageRequest.of(2, 20))).thenReturn(List.of());
+
+        List<Book> books = bookService.searchBooks("   ", 2, 20);
+
+        assertTrue(books.isEmpty());
+        verify(bookRepository).findAllBy(PageRequest.of(2, 20));
+    }
+
+    @Test
+    void testGetChapterTextReadsRangeInOneQuery() throws Exception {
+        ChapterTextInfo info = mock(ChapterTextInfo.class);
+        when(info.getId()).thenReturn(7L);
+        when(info.getContentHash()).thenReturn("v1");
+        when(info.getContentLength()).thenReturn(40000);
+        when(chapterRepository.findTextInfo(1L, 3)).thenReturn(Optional.of(info));
+        when(chapterRepository.findContentSlice(eq(7L), eq("v1"), anyInt(), anyInt()))
+                .thenAnswer(inv -> Optional.of("x".repeat(inv.getArgument(3, Integer.class))));
+
+        ChapterTextStream text = bookService.getChapterText(1L, 3, 39000, 5000).orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        text.writeTo(out);
+
+        // Диапазон обрезается по концу главы
+        assertEquals(1000, text.getLength());
+        assertTrue(text.isPartial());
+        assertEquals(1000, out.toString(StandardCharsets.UTF_8).length());
+        verify(chapterRepository).findContentSlice(7L, "v1", 39001, 1000);
+
+        // Глава длиннее куска передачи — всё равно один запрос к БД
+        ByteArrayOutputStream whole = new ByteArrayOutputStream();
+        bookService.getChapterText(1L, 3, 0, null).orElseThrow().writeTo(whole);
+        assertEquals(40000, whole.size());
+        verify(chapterRepository).findContentSlice(7L, "v1", 1, 40000);
+        verify(chapterRepository, times(2)).findContentSlice(eq(7L), eq("v1"), anyInt(), anyInt());
+
+        assertThrows(BadRequestException.class, () -> bookService.getChapterText(1L, 3, 40001, null));
+    }
+
+    @Test
+    void testChapterPageWithStaleLayoutVersionIsConflict() {
+        ChapterLayout layout = mock(ChapterLayout.class);
+        when(layout.getId()).thenReturn(7L);
+        when(layout.getChapterOrder()).thenReturn(3);
+        when(layout.getContentHash()).thenReturn("v2");
+        when(layout.getContentLength()).thenReturn(10);
+        when(layout.getPageOffsets()).thenReturn(new int[]{0, 5});
+        when(chapterRepository.findLayout(1L, 3)).thenReturn(Optional.of(layout));
+        when(chapterRepository.findContentSlice(7L, "v2", 6, 5)).thenReturn(Optional.of("мира."));
+
+        assertEquals("мира.", bookService.getChapterPage(1L, 3, 2, "v2").orElseThrow().getText());
+        assertThrows(ConflictException.class, () -> bookService.getChapterPage(1L, 3, 2, "v1"));
+
+        // Глава изменилась между чтением разметки и текста
+        when(chapterRepository.findContentSlice(7L, "v2", 1, 5)).thenReturn(Optional.empty());
+        assertThrows(ConflictException.class, () -> bookService.getChapterPage(1L, 3, 1, null));
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.BookSuggestionDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BookSuggestionIndexTest {
+
+    private BookRepository bookRepository;
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(1L, "Война и мир", "Лев Толстой"),
+                book(2L, "Мастер и Маргарита", "Михаил Булгаков"),
+                book(3L, "Ёлка", "Фёдор Достоевский")));
+        index = new BookSuggestionIndex(bookRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void testSuggestByTitleAndAuthorPrefix() {
+        assertEquals(List.of(1L), ids(index.suggest("вой", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("БУЛГ", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("война и м", 10)));
+    }
+
+    @Test
+    void testSuggestFoldsYo() {
+        assertEquals(List.of(3L), ids(index.suggest("елк", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("федор", 10)));
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        Book renamed = book(1L, "Анна Каренина", "Лев Толстой");
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.UPDATED, renamed));
+        assertTrue(index.suggest("вой", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.suggest("анна", 10)));
+
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, renamed));
+        assertTrue(index.suggest("толст", 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private static List<Long> ids(List<BookSuggestionDTO> suggestions) {
+        return suggestions.stream().map(BookSuggestionDTO::getId).toList();
+    }
+
+    private static Book book(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        return book;
+    }
+}
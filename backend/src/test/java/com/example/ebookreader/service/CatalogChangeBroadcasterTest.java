@@ -0,0 +1,96 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.BookChangeDTO;
+import com.example.ebookreader.dto.ChapterChangeDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogChangeBroadcasterTest {
+
+    private final CatalogChangeBroadcaster broadcaster = new CatalogChangeBroadcaster(4);
+
+    @Test
+    void testChapterChangesReachOnlySubscribersOfTheirBook() {
+        List<ChapterChangeDTO> first = new CopyOnWriteArrayList<>();
+        List<ChapterChangeDTO> second = new CopyOnWriteArrayList<>();
+        Disposable a = broadcaster.chapterChanges(1L).subscribe(first::add);
+        Disposable b = broadcaster.chapterChanges(2L).subscribe(second::add);
+
+        broadcaster.onChapterChanged(new ChapterChangedEvent(ChapterChangedEvent.Type.CREATED, chapter(1L, 5)));
+
+        assertEquals(1, first.size());
+        assertEquals("CREATED", first.get(0).getType());
+        assertEquals(5, first.get(0).getChapter().getChapterOrder());
+        assertNull(first.get(0).getChapter().getContent());
+        assertTrue(second.isEmpty());
+
+        // Тема удаляется вместе с последним подписчиком
+        a.dispose();
+        b.dispose();
+        assertEquals(0, broadcaster.topicCount());
+    }
+
+    @Test
+    void testSlowSubscriberKeepsOnlyNewestNotifications() {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        // Подписчик не запрашивает элементы, пока не прочитает буфер
+        var subscriber = new BaseSubscriber<BookChangeDTO>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+            }
+
+            @Override
+            protected void hookOnNext(BookChangeDTO value) {
+                received.add(value.getBookId());
+            }
+        };
+        broadcaster.bookChanges().subscribe(subscriber);
+
+        for (long id = 1; id <= 10; id++) {
+            broadcaster.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.CREATED, book(id)));
+        }
+        subscriber.request(Long.MAX_VALUE);
+
+        assertEquals(List.of(7L, 8L, 9L, 10L), received);
+    }
+
+    @Test
+    void testDeletingBookCompletesChapterSubscriptions() {
+        List<String> signals = new CopyOnWriteArrayList<>();
+        broadcaster.chapterChanges(3L).subscribe(change -> signals.add(change.getType()), e -> signals.add("error"),
+                () -> signals.add("complete"));
+
+        broadcaster.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, book(3L)));
+
+        assertEquals(List.of("complete"), signals);
+        assertEquals(0, broadcaster.topicCount());
+    }
+
+    private Book book(Long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Книга " + id);
+        return book;
+    }
+
+    private Chapter chapter(Long bookId, int order) {
+        Chapter chapter = new Chapter();
+        chapter.setId(100L + order);
+        chapter.setBook(book(bookId));
+        chapter.setChapterOrder(order);
+        chapter.setTitle("Глава " + order);
+        chapter.setContent("Текст");
+        return chapter;
+    }
+}
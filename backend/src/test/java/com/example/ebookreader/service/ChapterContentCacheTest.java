@@ -0,0 +1,155 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.ChapterDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChapterContentCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChapterContentCache cache;
+    private Book book;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChapterContentCache(new ChapterRenderer(objectMapper), 1024 * 1024);
+        book = new Book();
+        book.setId(1L);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testRepeatedReadsAreServedFromCache() throws Exception {
+        Chapter chapter = chapter(2, "Князь Андрей смотрел на небо.");
+
+        Optional<RenderedChapter> first = cache.get(1L, 2, () -> load(chapter));
+        Optional<RenderedChapter> second = cache.get(1L, 2, () -> load(chapter));
+
+        assertEquals("Князь Андрей смотрел на небо.", content(second.orElseThrow()));
+        assertSame(first.orElseThrow(), second.orElseThrow());
+        assertEquals(1, loads.get());
+
+        Map<String, Object> stats = cache.stats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+    }
+
+    @Test
+    void testMissingChapterIsNotCached() {
+        assertTrue(cache.get(1L, 9, () -> load(null)).isEmpty());
+        assertTrue(cache.get(1L, 9, () -> load(null)).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testUpdateIsWrittenThroughAndOldOrderInvalidated() throws Exception {
+        Chapter chapter = chapter(2, "old");
+        cache.get(1L, 2, () -> load(chapter));
+        cache.get(1L, 3, () -> load(chapter(3, "other")));
+
+        Chapter moved = chapter(3, "new");
+        cache.onChapterChanged(new ChapterChangedEvent(ChapterChangedEvent.Type.UPDATED, moved, 2));
+
+        // Новое представление уже в кэше — загрузчик не вызывается
+        RenderedChapter updated = cache.get(1L, 3, () -> load(moved)).orElseThrow();
+        assertEquals("new", content(updated));
+        assertEquals(2, loads.get());
+        // Версия (ETag) зависит от содержимого главы
+        assertNotNull(updated.getVersion());
+        assertNotEquals(cache.get(1L, 2, () -> load(chapter)).orElseThrow().getVersion(), updated.getVersion());
+        assertEquals(3, loads.get());
+
+        cache.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, book));
+        assertEquals(0L, cache.stats().get("entries"));
+    }
+
+    @Test
+    void testRangeLoadsOnlyMissingChaptersInOneQuery() throws Exception {
+        cache.get(1L, 2, () -> load(chapter(2, "вторая")));
+        AtomicInteger rangeQueries = new AtomicInteger();
+
+        List<RenderedChapter> range = cache.getRange(1L, 1, 4, (min, max) -> {
+            rangeQueries.incrementAndGet();
+            assertEquals(1, min);
+            assertEquals(4, max);
+            return List.of(chapter(1, "первая"), chapter(2, "вторая"), chapter(3, "третья"));
+        });
+
+        // Глава 4 отсутствует и пропускается, глава 2 взята из кэша
+        assertEquals(1, rangeQueries.get());
+        assertEquals(List.of(1, 2, 3), range.stream().map(RenderedChapter::getChapterOrder).toList());
+        assertEquals("третья", content(range.get(2)));
+        assertTrue(cache.contains(1L, 3));
+        assertFalse(cache.contains(1L, 4));
+    }
+
+    @Test
+    void testLoadThatReadBeforeCommitDoesNotOverwriteCommittedVersion() throws Exception {
+        Chapter stale = chapter(1, "до правки");
+        Chapter committed = chapter(1, "после правки");
+
+        // Загрузка прочитала главу до коммита, а событие коммита пришло раньше её записи в кэш
+        List<RenderedChapter> range = cache.getRange(1L, 1, 1, (min, max) -> {
+            cache.onChapterChanged(new ChapterChangedEvent(ChapterChangedEvent.Type.UPDATED, committed));
+            return List.of(stale);
+        });
+
+        assertEquals("до правки", content(range.get(0)));
+        assertEquals("после правки", content(cache.get(1L, 1, () -> load(stale)).orElseThrow()));
+        assertEquals(0, loads.get());
+
+        // То же для удаления: удалённая глава не возвращается в кэш
+        cache.getRange(1L, 2, 2, (min, max) -> {
+            cache.onChapterChanged(new ChapterChangedEvent(ChapterChangedEvent.Type.DELETED, chapter(2, "удалена")));
+            return List.of(chapter(2, "удалена"));
+        });
+        assertFalse(cache.contains(1L, 2));
+    }
+
+    @Test
+    void testJsonAndGzipVariantsAreWeighed() throws Exception {
+        RenderedChapter rendered = cache.get(1L, 1, () -> load(chapter(1, "ж".repeat(1000)))).orElseThrow();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(rendered.getGzip()))) {
+            assertArrayEquals(rendered.getJson(), in.readAllBytes());
+        }
+        assertTrue(rendered.getGzip().length < rendered.getJson().length / 10);
+
+        long weighted = (Long) cache.stats().get("weightedBytes");
+        assertEquals(96 + rendered.getJson().length + rendered.getGzip().length, weighted);
+    }
+
+    private String content(RenderedChapter rendered) throws Exception {
+        return objectMapper.readValue(rendered.getJson(), ChapterDTO.class).getContent();
+    }
+
+    private Optional<Chapter> load(Chapter chapter) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(chapter);
+    }
+
+    private Chapter chapter(int order, String content) {
+        Chapter chapter = new Chapter();
+        chapter.setId((long) order);
+        chapter.setBook(book);
+        chapter.setChapterOrder(order);
+        chapter.setTitle("Глава " + order);
+        chapter.setContent(content);
+        return chapter;
+    }
+}
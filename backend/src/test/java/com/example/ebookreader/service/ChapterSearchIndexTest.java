@@ -0,0 +1,98 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.dto.ChapterSearchHitDTO;
+import com.example.ebookreader.event.BookChangedEvent;
+import com.example.ebookreader.event.ChapterChangedEvent;
+import com.example.ebookreader.model.Book;
+import com.example.ebookreader.model.Chapter;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.ChapterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChapterSearchIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    private ChapterSearchIndex index;
+    private Book war;
+    private Book master;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        war = book(1L, "Война и мир");
+        master = book(2L, "Мастер и Маргарита");
+
+        BookRepository bookRepository = mock(BookRepository.class);
+        ChapterRepository chapterRepository = mock(ChapterRepository.class);
+        when(bookRepository.findAll()).thenReturn(List.of(war, master));
+        when(chapterRepository.findByBookIdOrderByChapterOrderAsc(1L)).thenReturn(List.of(
+                chapter(10L, war, 1, "Глава первая", "Князь Андрей смотрел на высокое небо."),
+                chapter(11L, war, 2, "Глава вторая", "Наташа Ростова танцевала на балу.")));
+        when(chapterRepository.findByBookIdOrderByChapterOrderAsc(2L)).thenReturn(List.of(
+                chapter(20L, master, 1, "Никогда не разговаривайте с неизвестными", "Над Патриаршими прудами было высокое небо.")));
+
+        index = new ChapterSearchIndex(bookRepository, chapterRepository, indexDir.toString());
+        index.open();
+        index.rebuildIfEmpty();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void testCorpusWideSearchWithSnippets() {
+        List<ChapterSearchHitDTO> hits = index.search(null, "небо", 10);
+
+        assertEquals(2, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> hit.getSnippet().contains("<mark>небо</mark>")));
+    }
+
+    @Test
+    void testSearchWithinBookUsesMorphology() {
+        List<ChapterSearchHitDTO> hits = index.search(1L, "танцевать", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(2, hits.get(0).getChapterOrder());
+        assertEquals("Война и мир", hits.get(0).getBookTitle());
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        Chapter updated = chapter(11L, war, 2, "Глава вторая", "Пьер Безухов ехал в Москву.");
+        index.onChapterChanged(new ChapterChangedEvent(ChapterChangedEvent.Type.UPDATED, updated));
+        assertTrue(index.search(1L, "Наташа", 10).isEmpty());
+        assertEquals(1, index.search(1L, "Пьер", 10).size());
+
+        index.onBookChanged(new BookChangedEvent(BookChangedEvent.Type.DELETED, master));
+        assertEquals(1, index.search(null, "небо", 10).size());
+    }
+
+    private static Book book(Long id, String title) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        return book;
+    }
+
+    private static Chapter chapter(Long id, Book book, int order, String title, String content) {
+        Chapter chapter = new Chapter();
+        chapter.setId(id);
+        chapter.setBook(book);
+        chapter.setChapterOrder(order);
+        chapter.setTitle(title);
+        chapter.setContent(content);
+        return chapter;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.event.UserChangedEvent;
+import com.example.ebookreader.repository.BookRepository;
+import com.example.ebookreader.repository.UserBookRepository;
+import com.example.ebookreader.repository.UserBookRepositoryCustom.ProgressUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProgressWriteBufferTest {
+
+    private UserBookRepository userBookRepository;
+    private ProgressWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        userBookRepository = mock(UserBookRepository.class);
+        BookRepository bookRepository = mock(BookRepository.class);
+        when(bookRepository.existsById(anyLong())).thenReturn(true);
+        // Интервал больше времени теста: сбрасываем вручную
+        buffer = new ProgressWriteBuffer(userBookRepository, bookRepository, 3_600_000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(userBookRepository);
+        buffer.shutdown();
+    }
+
+    @Test
+    void testProgressIsKeptWhenDatabaseIsUnavailable() {
+        buffer.record(1L, 10L, 3);
+        buffer.record(1L, 11L, 5);
+        doThrow(new TransientDataAccessResourceException("connection refused"))
+                .when(userBookRepository).upsertProgress(anyList());
+
+        assertEquals(0, buffer.flush());
+        assertEquals(2, buffer.pendingCount());
+        verify(userBookRepository, never()).upsertProgress(any(ProgressUpdate.class));
+
+        doNothing().when(userBookRepository).upsertProgress(anyList());
+        assertEquals(2, buffer.flush());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void testOnlyRejectedRowIsDroppedAfterBatchFailure() {
+        buffer.record(1L, 10L, 3);
+        buffer.record(1L, 11L, 5);
+        doThrow(new DataIntegrityViolationException("fk_user_books_book"))
+                .when(userBookRepository).upsertProgress(anyList());
+        doThrow(new DataIntegrityViolationException("fk_user_books_book"))
+                .when(userBookRepository).upsertProgress(argThat((ProgressUpdate update) -> update.bookId() == 10L));
+
+        assertEquals(2, buffer.flush());
+        assertEquals(0, buffer.pendingCount());
+        verify(userBookRepository).upsertProgress(argThat((ProgressUpdate update) -> update.bookId() == 11L));
+    }
+
+    @Test
+    void testRowByRowWriteStopsWhenDatabaseFails() {
+        buffer.record(1L, 10L, 3);
+        buffer.record(1L, 11L, 5);
+        doThrow(new DataIntegrityViolationException("fk_user_books_book"))
+                .when(userBookRepository).upsertProgress(anyList());
+        doThrow(new TransientDataAccessResourceException("connection reset"))
+                .when(userBookRepository).upsertProgress(any(ProgressUpdate.class));
+
+        assertEquals(0, buffer.flush());
+        assertEquals(2, buffer.pendingCount());
+        verify(userBookRepository, times(1)).upsertProgress(any(ProgressUpdate.class));
+    }
+
+    @Test
+    void testPendingForUserSeesOnlyThatUsersUnwrittenProgress() {
+        buffer.record(1L, 10L, 3);
+        buffer.record(1L, 10L, 4);
+        buffer.record(2L, 10L, 7);
+
+        assertEquals(Set.of(10L), buffer.pendingForUser(1L).keySet());
+        assertEquals(4, buffer.pendingForUser(1L).get(10L).chapter());
+        assertTrue(buffer.pendingForUser(3L).isEmpty());
+
+        buffer.onUserChanged(new UserChangedEvent(UserChangedEvent.Type.DELETED, 2L, 0));
+        assertTrue(buffer.pendingForUser(2L).isEmpty());
+        assertEquals(1, buffer.pendingCount());
+
+        buffer.flush();
+        assertTrue(buffer.pendingForUser(1L).isEmpty());
+    }
+}
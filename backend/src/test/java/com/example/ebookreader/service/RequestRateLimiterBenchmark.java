@@ -0,0 +1,63 @@
+package com.example.ebookreader.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена RequestRateLimiter на запрос: маршрут без лимита (отсечка по префиксу)
+ * и маршрут с лимитом (разбор пути, поиск ведра, CAS). Правила — как в SecurityConfig,
+ * ёмкость завышена, чтобы мерить путь разрешённого запроса.
+ *
+ * Запуск: mvn test-compile, затем main() этого класса с тестовым classpath.
+ * В mvn test не выполняется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestRateLimiterBenchmark {
+
+    private RequestRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        int capacity = Integer.MAX_VALUE;
+        limiter = new RequestRateLimiter(List.of(
+                RequestRateLimiter.rule("login", "POST", "/api/auth/login", capacity, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("register", "POST", "/api/auth/register", capacity, Duration.ofMinutes(10)),
+                RequestRateLimiter.rule("refresh", "POST", "/api/auth/refresh", capacity, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("password", "PUT", "/api/user/password", capacity, Duration.ofMinutes(1)),
+                RequestRateLimiter.rule("search", "GET", "/api/books/search/**", capacity, Duration.ofMinutes(1))
+        ), 100_000);
+    }
+
+    @Benchmark
+    public long unlimitedRoute() {
+        return limiter.tryAcquire("GET", "/api/books/7/chapters/3", "10.0.0.1");
+    }
+
+    @Benchmark
+    public long limitedRoute() {
+        return limiter.tryAcquire("GET", "/api/books/search/content", "10.0.0.1");
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(RequestRateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ebookreader.service;
+
+import com.example.ebookreader.config.AuthenticatedUser;
+import com.example.ebookreader.config.JwtUtil;
+import com.example.ebookreader.config.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestRateLimiterTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBurstUpToCapacityThenRefillAtConstantRate() {
+        RequestRateLimiter.Rule rule = RequestRateLimiter.rule("login", "POST", "/api/auth/login", 3, Duration.ofSeconds(3));
+        new RequestRateLimiter(List.of(rule), 100);
+        long second = Duration.ofSeconds(1).toNanos();
+
+        assertEquals(0, rule.tryAcquire("1.2.3.4", 0));
+        assertEquals(0, rule.tryAcquire("1.2.3.4", 0));
+        assertEquals(0, rule.tryAcquire("1.2.3.4", 0));
+        // Ведро пусто: следующий запрос — через интервал наполнения (1 с)
+        assertEquals(second, rule.tryAcquire("1.2.3.4", 0));
+        assertEquals(second / 2, rule.tryAcquire("1.2.3.4", second / 2));
+        assertEquals(0, rule.tryAcquire("1.2.3.4", second));
+        // У другого клиента своё ведро
+        assertEquals(0, rule.tryAcquire("5.6.7.8", second));
+    }
+
+    @Test
+    void testOnlyMatchingRoutesAreLimited() {
+        RequestRateLimiter limiter = new RequestRateLimiter(List.of(
+                RequestRateLimiter.rule("search", "GET", "/api/books/search/**", 1, Duration.ofMinutes(1))), 100);
+
+        assertEquals(0, limiter.tryAcquire("GET", "/api/books/search", "ip"));
+        assertTrue(limiter.tryAcquire("GET", "/api/books/search/content", "ip") > 0);
+        assertEquals(0, limiter.tryAcquire("GET", "/api/books/searchable", "ip"));
+        assertEquals(0, limiter.tryAcquire("POST", "/api/books/search", "ip"));
+        assertEquals(0, limiter.tryAcquire("GET", "/api/books/7", "ip"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> search = (Map<String, Object>) limiter.stats().get("search");
+        assertEquals(1L, search.get("allowed"));
+        assertEquals(1L, search.get("rejected"));
+    }
+
+    @Test
+    void testFilterKeysByUserAndRejectsWith429() throws Exception {
+        RequestRateLimiter limiter = new RequestRateLimiter(List.of(
+                RequestRateLimiter.rule("password", "PUT", "/api/user/password", 1, Duration.ofMinutes(1))), 100);
+        RateLimitFilter filter = new RateLimitFilter(limiter, new JwtUtil(100), new ObjectMapper());
+
+        assertEquals(200, perform(filter, 42L).getStatus());
+        MockHttpServletResponse rejected = perform(filter, 42L);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("60", rejected.getHeader("Retry-After"));
+        // Тот же IP, но другой пользователь
+        assertEquals(200, perform(filter, 43L).getStatus());
+    }
+
+    @Test
+    void testPublicRouteIsKeyedByUserFromOptionalBearerToken() throws Exception {
+        RequestRateLimiter limiter = new RequestRateLimiter(List.of(
+                RequestRateLimiter.rule("search", "GET", "/api/books/search/**", 1, Duration.ofMinutes(1))), 100);
+        JwtUtil jwtUtil = new JwtUtil(100);
+        RateLimitFilter filter = new RateLimitFilter(limiter, jwtUtil, new ObjectMapper());
+
+        // JwtFilter публичные маршруты пропускает: контекст пуст, пользователь берётся из заголовка
+        assertEquals(200, search(filter, bearer(jwtUtil, 42L)).getStatus());
+        assertEquals(429, search(filter, bearer(jwtUtil, 42L)).getStatus());
+        // С того же IP: другой пользователь и анонимный клиент считаются отдельно
+        assertEquals(200, search(filter, bearer(jwtUtil, 43L)).getStatus());
+        assertEquals(200, search(filter, null).getStatus());
+        assertEquals(429, search(filter, "Bearer not-a-jwt").getStatus());
+    }
+
+    private MockHttpServletResponse search(RateLimitFilter filter, String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/search/content");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static String bearer(JwtUtil jwtUtil, Long userId) {
+        return "Bearer " + jwtUtil.generateToken(userId,
+                new User("reader" + userId, "", List.of(new SimpleGrantedAuthority("ROLE_USER"))), 0);
+    }
+
+    private MockHttpServletResponse perform(RateLimitFilter filter, Long userId) throws Exception {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "reader" + userId, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/user/password"), response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.ebookreader.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChapterPaginatorTest {
+
+    @Test
+    void testParagraphOffsetsSkipBlankLines() {
+        String text = "Первый абзац.\n\nВторой.\r\nТретий";
+
+        assertArrayEquals(new int[] {0, 15, 24}, ChapterPaginator.paragraphOffsets(text));
+        assertArrayEquals(new int[0], ChapterPaginator.paragraphOffsets(null));
+    }
+
+    @Test
+    void testPagesBreakAtParagraphsWithinLimit() {
+        String paragraph = "слово ".repeat(100) + "\n"; // 601 символ
+        String text = paragraph.repeat(10);
+        int[] paragraphs = ChapterPaginator.paragraphOffsets(text);
+
+        int[] pages = ChapterPaginator.pageOffsets(text, paragraphs, 2000);
+
+        // По три абзаца на страницу: 3 * 601 = 1803 <= 2000
+        assertArrayEquals(new int[] {0, 1803, 3606, 5409}, pages);
+    }
+
+    @Test
+    void testLongParagraphIsSplitAtWhitespace() {
+        String text = "абв ".repeat(1000); // один абзац из 4000 символов
+        int[] pages = ChapterPaginator.pageOffsets(text, ChapterPaginator.paragraphOffsets(text), 2000);
+
+        assertEquals(0, pages[0]);
+        for (int i = 1; i < pages.length; i++) {
+            assertTrue(pages[i] - pages[i - 1] <= 2000);
+            assertEquals(' ', text.charAt(pages[i] - 1));
+        }
+        assertTrue(text.length() - pages[pages.length - 1] <= 2000);
+    }
+
+    @Test
+    void testOffsetsAreCountedInCodePoints() {
+        String text = "😀\nабзац";
+
+        assertArrayEquals(new int[] {0, 2}, ChapterPaginator.paragraphOffsets(text));
+    }
+}
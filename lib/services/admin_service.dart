@@ -31,21 +31,28 @@ class AdminService {
   /// Отправляет GET-запрос на `/admin/books`.
   /// Выбрасывает [Exception] при отсутствии прав или ошибке сервера.
   Future<List<dynamic>> getBooks() async {
-    final url = Uri.parse('$baseUrl/books');
-    print('📡 [getBooks] GET $url');
-    final res = await http.get(url, headers: headers);
-
-    print('📡 [getBooks] STATUS: ${res.statusCode}');
-    print('📦 [getBooks] BODY: ${res.body}');
-
-    if (res.statusCode == 200) {
-      if (res.body.isEmpty) return [];
-      return jsonDecode(res.body);
-    } else if (res.statusCode == 403) {
-      throw Exception('Нет прав доступа (403 Forbidden)');
-    } else {
-      throw Exception('Ошибка загрузки книг: ${res.statusCode}');
-    }
+    // Каталог отдаётся страницами: курсор следующей приходит в заголовке X-Next-Cursor
+    final books = <dynamic>[];
+    String? cursor;
+    do {
+      final base = Uri.parse('$baseUrl/books');
+      final url = cursor == null ? base : base.replace(queryParameters: {'cursor': cursor});
+      print('📡 [getBooks] GET $url');
+      final res = await http.get(url, headers: headers);
+
+      print('📡 [getBooks] STATUS: ${res.statusCode}');
+      print('📦 [getBooks] BODY: ${res.body}');
+
+      if (res.statusCode == 200) {
+        if (res.body.isNotEmpty) books.addAll(jsonDecode(res.body));
+        cursor = res.headers['x-next-cursor'];
+      } else if (res.statusCode == 403) {
+        throw Exception('Нет прав доступа (403 Forbidden)');
+      } else {
+        throw Exception('Ошибка загрузки книг: ${res.statusCode}');
+      }
+    } while (cursor != null);
+    return books;
   }
 
   /// Добавляет новую книгу с обложкой через multipart-запрос.
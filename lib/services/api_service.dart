@@ -13,13 +13,22 @@ class ApiService {
   ///
   /// Выбрасывает [Exception] при ошибке сервера.
   Future<List<Book>> fetchBooks() async {
-    final response = await http.get(Uri.parse('${ApiConstants.baseUrl}/books'));
+    // Каталог отдаётся страницами: курсор следующей приходит в заголовке X-Next-Cursor
+    final books = <Book>[];
+    String? cursor;
+    do {
+      final uri = Uri.parse('${ApiConstants.baseUrl}/books');
+      final response = await http.get(
+          cursor == null ? uri : uri.replace(queryParameters: {'cursor': cursor}));
 
-    if (response.statusCode == 200) {
-      final List<dynamic> jsonList = jsonDecode(response.body);
-      return jsonList.map((json) => Book.fromJson(json)).toList();
-    } else {
-      throw Exception('Ошибка загрузки книг: ${response.statusCode}');
-    }
+      if (response.statusCode == 200) {
+        final List<dynamic> jsonList = jsonDecode(response.body);
+        books.addAll(jsonList.map((json) => Book.fromJson(json)));
+        cursor = response.headers['x-next-cursor'];
+      } else {
+        throw Exception('Ошибка загрузки книг: ${response.statusCode}');
+      }
+    } while (cursor != null);
+    return books;
   }
 }
@@ -19,35 +19,34 @@ class BookService {
       print('=== GET ALL BOOKS REQUEST ===');
       print('URL: $baseUrl/books');
 
-      final response = await http.get(
-        Uri.parse('$baseUrl/books'),
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': 'Bearer $token',
-        },
-      );
-
-      print('Status code: ${response.statusCode}');
-      print('Response body: ${response.body}');
-
-      if (response.statusCode == 200) {
-        if (response.body.isEmpty || response.body == '[]') {
-          return [];
+      // Каталог отдаётся страницами: курсор следующей приходит в заголовке X-Next-Cursor
+      final books = <dynamic>[];
+      String? cursor;
+      do {
+        final response = await _getPage('/books', token, cursor);
+
+        print('Status code: ${response.statusCode}');
+        print('Response body: ${response.body}');
+
+        if (response.statusCode == 200) {
+          if (response.body.isNotEmpty) {
+            final data = json.decode(response.body);
+            if (data is List) {
+              books.addAll(data);
+            } else if (data is Map && data.containsKey('books')) {
+              books.addAll(data['books']);
+            }
+          }
+          cursor = response.headers['x-next-cursor'];
+        } else if (response.statusCode == 401) {
+          throw Exception('Сессия истекла. Войдите заново');
+        } else if (response.statusCode == 403) {
+          throw Exception('Доступ запрещен');
+        } else {
+          throw Exception('Ошибка загрузки книг: ${response.statusCode}');
         }
-        final data = json.decode(response.body);
-        if (data is List) {
-          return data;
-        } else if (data is Map && data.containsKey('books')) {
-          return data['books'];
-        }
-        return [];
-      } else if (response.statusCode == 401) {
-        throw Exception('Сессия истекла. Войдите заново');
-      } else if (response.statusCode == 403) {
-        throw Exception('Доступ запрещен');
-      } else {
-        throw Exception('Ошибка загрузки книг: ${response.statusCode}');
-      }
+      } while (cursor != null);
+      return books;
     } catch (e) {
       print('Error in getAllBooks: $e');
       rethrow;
@@ -63,41 +62,53 @@ class BookService {
       print('=== GET ADMIN BOOKS REQUEST ===');
       print('URL: $baseUrl/admin/books');
 
-      final response = await http.get(
-        Uri.parse('$baseUrl/admin/books'),
-        headers: {
-          'Content-Type': 'application/json',
-          'Authorization': 'Bearer $token',
-        },
-      );
-
-      print('Status code: ${response.statusCode}');
-      print('Response body: ${response.body}');
-
-      if (response.statusCode == 200) {
-        if (response.body.isEmpty || response.body == '[]') {
-          return [];
+      // Каталог отдаётся страницами: курсор следующей приходит в заголовке X-Next-Cursor
+      final books = <dynamic>[];
+      String? cursor;
+      do {
+        final response = await _getPage('/admin/books', token, cursor);
+
+        print('Status code: ${response.statusCode}');
+        print('Response body: ${response.body}');
+
+        if (response.statusCode == 200) {
+          if (response.body.isNotEmpty) {
+            final data = json.decode(response.body);
+            if (data is List) {
+              books.addAll(data);
+            } else if (data is Map && data.containsKey('books')) {
+              books.addAll(data['books']);
+            }
+          }
+          cursor = response.headers['x-next-cursor'];
+        } else if (response.statusCode == 401) {
+          throw Exception('Сессия истекла. Войдите заново');
+        } else if (response.statusCode == 403) {
+          throw Exception('Доступ запрещен. Требуются права администратора');
+        } else {
+          throw Exception('Ошибка загрузки книг: ${response.statusCode}');
         }
-        final data = json.decode(response.body);
-        if (data is List) {
-          return data;
-        } else if (data is Map && data.containsKey('books')) {
-          return data['books'];
-        }
-        return [];
-      } else if (response.statusCode == 401) {
-        throw Exception('Сессия истекла. Войдите заново');
-      } else if (response.statusCode == 403) {
-        throw Exception('Доступ запрещен. Требуются права администратора');
-      } else {
-        throw Exception('Ошибка загрузки книг: ${response.statusCode}');
-      }
+      } while (cursor != null);
+      return books;
     } catch (e) {
       print('Error in getAdminBooks: $e');
       rethrow;
     }
   }
 
+  /// Запрашивает одну страницу списка книг; [cursor] — значение `X-Next-Cursor`
+  /// предыдущей страницы или null для первой.
+  Future<http.Response> _getPage(String path, String token, String? cursor) {
+    final uri = Uri.parse('$baseUrl$path');
+    return http.get(
+      cursor == null ? uri : uri.replace(queryParameters: {'cursor': cursor}),
+      headers: {
+        'Content-Type': 'application/json',
+        'Authorization': 'Bearer $token',
+      },
+    );
+  }
+
   /// Возвращает данные конкретной книги по её идентификатору.
   ///
   /// Отправляет GET-запрос на `/books/{bookId}`.